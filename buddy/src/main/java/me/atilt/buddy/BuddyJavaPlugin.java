@@ -100,11 +100,14 @@ public abstract class BuddyJavaPlugin extends JavaPlugin implements BuddyPlugin
 
     @Override
     public boolean reload() {
-        return true;
+        return this.eventManager == null || this.eventManager.reload();
     }
 
     @Override
     public void close() {
+        if (this.eventManager != null) {
+            this.eventManager.close();
+        }
         this.closed = true;
     }
 
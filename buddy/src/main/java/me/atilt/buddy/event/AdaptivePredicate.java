@@ -0,0 +1,166 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * A conjunction of predicates that periodically reorders itself so the
+ * predicates which reject most often for the least time run first.
+ * <p>
+ * Every {@value #SAMPLE_INTERVAL}th evaluation is timed; every {@value #REORDER_INTERVAL}
+ * evaluations the order is recomputed from the samples into a spare array and published,
+ * so an evaluation in flight keeps running against the order it started with.
+ * Statistics are updated without synchronization and are only approximate.
+ *
+ * @param <E> the type of input
+ */
+final class AdaptivePredicate<E> implements Predicate<E>, ConcurrentStage {
+
+    // both powers of two, so a wrapped counter keeps its rhythm
+    private static final int SAMPLE_INTERVAL = 16;
+    private static final int REORDER_INTERVAL = 4096;
+
+    private final Predicate<E>[] predicates;
+    private final long[] calls;
+    private final long[] rejections;
+    private final long[] nanos;
+    private final double[] scores;
+
+    private volatile int[] order;
+    private int[] spare;
+    private int evaluations;
+    private AtomicInteger shared;
+    private AtomicBoolean reordering;
+
+    @SuppressWarnings("unchecked")
+    AdaptivePredicate(@Nonnull List<Predicate<E>> predicates) {
+        Objects.requireNonNull(predicates, "predicates");
+        this.predicates = predicates.toArray(new Predicate[0]);
+        int length = this.predicates.length;
+        this.calls = new long[length];
+        this.rejections = new long[length];
+        this.nanos = new long[length];
+        this.scores = new double[length];
+        int[] order = new int[length];
+        for (int i = 0; i < length; i++) {
+            order[i] = i;
+        }
+        this.order = order;
+        this.spare = new int[length];
+    }
+
+    @Override
+    public void concurrent() {
+        this.shared = new AtomicInteger();
+        this.reordering = new AtomicBoolean();
+    }
+
+    @Override
+    public boolean test(E event) {
+        int evaluation = this.shared != null ? this.shared.incrementAndGet() : ++this.evaluations;
+        if ((evaluation & (SAMPLE_INTERVAL - 1)) != 0) {
+            int[] order = this.order;
+            for (int i = 0; i < order.length; i++) {
+                if (!this.predicates[order[i]].test(event)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        boolean result = sample(event);
+        if ((evaluation & (REORDER_INTERVAL - 1)) == 0) {
+            if (this.reordering == null) {
+                reorder();
+            } else if (this.reordering.compareAndSet(false, true)) {
+                try {
+                    reorder();
+                } finally {
+                    this.reordering.set(false);
+                }
+            }
+        }
+        return result;
+    }
+
+    private boolean sample(E event) {
+        int[] order = this.order;
+        for (int i = 0; i < order.length; i++) {
+            int index = order[i];
+            long start = System.nanoTime();
+            boolean passed = this.predicates[index].test(event);
+            this.nanos[index] += System.nanoTime() - start;
+            this.calls[index]++;
+            if (!passed) {
+                this.rejections[index]++;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void reorder() {
+        int length = this.predicates.length;
+        double[] scores = this.scores;
+        int[] next = this.spare;
+        for (int i = 0; i < length; i++) {
+            long calls = this.calls[i];
+            if (calls == 0) {
+                scores[i] = Double.MAX_VALUE;
+            } else {
+                double cost = (double) this.nanos[i] / calls;
+                double rejection = Math.max((double) this.rejections[i] / calls, 1.0E-3);
+                scores[i] = cost / rejection;
+            }
+            next[i] = i;
+
+            this.calls[i] >>= 1;
+            this.rejections[i] >>= 1;
+            this.nanos[i] >>= 1;
+        }
+        for (int i = 1; i < length; i++) {
+            int index = next[i];
+            int j = i - 1;
+            while (j >= 0 && scores[next[j]] > scores[index]) {
+                next[j + 1] = next[j];
+                j--;
+            }
+            next[j + 1] = index;
+        }
+        int[] current = this.order;
+        if (Arrays.equals(next, current)) {
+            return;
+        }
+        this.order = next;
+        // another thread may still be evaluating against the replaced order
+        this.spare = this.reordering == null ? current : new int[length];
+    }
+}
\ No newline at end of file
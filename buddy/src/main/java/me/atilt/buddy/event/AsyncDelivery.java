@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import com.google.common.base.Preconditions;
+import me.atilt.buddy.event.delivery.OverflowPolicy;
+import org.bukkit.event.Event;
+import org.bukkit.plugin.Plugin;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+final class AsyncDelivery<E extends Event, T> implements Consumer<E> {
+
+    private final Plugin plugin;
+    private final Executor executor;
+    private final Function<E, T> snapshot;
+    private final Consumer<T> on;
+    private final OverflowPolicy overflow;
+    private final BlockingQueue<T> queue;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final LongAdder dropped = new LongAdder();
+
+    AsyncDelivery(@Nonnull Plugin plugin, @Nonnull Executor executor, @Nonnull Function<E, T> snapshot, @Nonnull Consumer<T> on, @Nonnegative int capacity, @Nonnull OverflowPolicy overflow) {
+        Objects.requireNonNull(plugin, "plugin");
+        Objects.requireNonNull(executor, "executor");
+        Objects.requireNonNull(snapshot, "snapshot");
+        Objects.requireNonNull(on, "on");
+        Objects.requireNonNull(overflow, "overflow");
+        Preconditions.checkArgument(capacity > 0, "invalid capacity: %s", capacity);
+        this.plugin = plugin;
+        this.executor = executor;
+        this.snapshot = snapshot;
+        this.on = on;
+        this.overflow = overflow;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    int queued() {
+        return this.queue.size();
+    }
+
+    long dropped() {
+        return this.dropped.sum();
+    }
+
+    boolean blocking() {
+        return this.overflow == OverflowPolicy.BLOCK;
+    }
+
+    @Override
+    public void accept(E event) {
+        T value = this.snapshot.apply(event);
+        if (value == null) {
+            return;
+        }
+        if (this.queue.offer(value)) {
+            drainLater(value);
+            return;
+        }
+        switch (this.overflow) {
+            case DROP_NEWEST:
+                this.dropped.increment();
+                break;
+            case DROP_OLDEST:
+                do {
+                    if (this.queue.poll() != null) {
+                        this.dropped.increment();
+                    }
+                } while (!this.queue.offer(value));
+                drainLater(value);
+                break;
+            case BLOCK:
+                // waiting for room is pointless if nothing is going to drain the queue
+                if (!drainLater(null)) {
+                    this.dropped.increment();
+                    break;
+                }
+                try {
+                    this.queue.put(value);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    this.dropped.increment();
+                    break;
+                }
+                // the drain may have finished between making room and the put
+                drainLater(value);
+                break;
+            case CALLER_RUNS:
+                this.on.accept(value);
+                break;
+        }
+    }
+
+    /**
+     * Schedules a drain unless one is running. If the executor rejects it, the queued value
+     * is dropped rather than failing the event dispatch.
+     *
+     * @param queued the value just queued, if any
+     * @return if the queue is being drained
+     */
+    private boolean drainLater(T queued) {
+        if (!this.draining.compareAndSet(false, true)) {
+            return true;
+        }
+        try {
+            this.executor.execute(this::drain);
+            return true;
+        } catch (RejectedExecutionException exception) {
+            this.draining.set(false);
+            if (queued != null && this.queue.remove(queued)) {
+                this.dropped.increment();
+            }
+            this.plugin.getLogger().log(Level.WARNING, "async delivery rejected by its executor, dropping a value", exception);
+            return false;
+        }
+    }
+
+    private void drain() {
+        do {
+            T value;
+            while ((value = this.queue.poll()) != null) {
+                try {
+                    this.on.accept(value);
+                } catch (Throwable throwable) {
+                    this.plugin.getLogger().log(Level.SEVERE, "could not deliver a value asynchronously", throwable);
+                }
+            }
+            this.draining.set(false);
+        } while (!this.queue.isEmpty() && this.draining.compareAndSet(false, true));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,186 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import com.google.common.base.Preconditions;
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+final class BatchDelivery<E extends Event, T> implements Consumer<E>, ConcurrentStage {
+
+    private final Plugin plugin;
+    private final Function<E, T> extractor;
+    private final int ticks;
+    private final int maxSize;
+    private final Consumer<List<T>> on;
+    private final List<T> buffer;
+    private final List<T> view;
+    private BukkitTask flush;
+    private boolean shared;
+    private boolean closed;
+
+    BatchDelivery(@Nonnull Plugin plugin, @Nonnull Function<E, T> extractor, @Nonnegative int ticks, @Nonnegative int maxSize, @Nonnull Consumer<List<T>> on) {
+        Objects.requireNonNull(plugin, "plugin");
+        Objects.requireNonNull(extractor, "extractor");
+        Objects.requireNonNull(on, "on");
+        Preconditions.checkArgument(ticks > 0, "invalid ticks: %s", ticks);
+        Preconditions.checkArgument(maxSize > 0, "invalid maxSize: %s", maxSize);
+        this.plugin = plugin;
+        this.extractor = extractor;
+        this.ticks = ticks;
+        this.maxSize = maxSize;
+        this.on = on;
+        this.buffer = new ArrayList<>(maxSize);
+        this.view = Collections.unmodifiableList(this.buffer);
+    }
+
+    @Override
+    public void concurrent() {
+        this.shared = true;
+    }
+
+    @Override
+    public void accept(E event) {
+        if (!this.shared) {
+            if (append(event)) {
+                deliver();
+            }
+            return;
+        }
+        List<T> batch = null;
+        synchronized (this) {
+            if (append(event)) {
+                batch = take();
+            }
+        }
+        deliver(batch);
+    }
+
+    /**
+     * @return whether the batch is full and due for delivery
+     */
+    private boolean append(E event) {
+        // an event dispatched while the observer closes arrives after the last batch
+        if (this.closed) {
+            return false;
+        }
+        this.buffer.add(this.extractor.apply(event));
+        if (this.buffer.size() >= this.maxSize) {
+            return true;
+        }
+        if (this.flush == null) {
+            this.flush = Bukkit.getScheduler().runTaskLater(this.plugin, this::flush, this.ticks);
+        }
+        return false;
+    }
+
+    void flush() {
+        if (!this.shared) {
+            deliver();
+            return;
+        }
+        List<T> batch;
+        synchronized (this) {
+            batch = take();
+        }
+        deliver(batch);
+    }
+
+    /**
+     * Delivers the pending batch and cancels its flush, so nothing is delivered
+     * once the observer has closed. A failing consumer is reported rather than
+     * thrown, closing has to go on regardless.
+     */
+    void close() {
+        try {
+            if (!this.shared) {
+                this.closed = true;
+                deliver();
+                return;
+            }
+            List<T> batch;
+            synchronized (this) {
+                this.closed = true;
+                batch = take();
+            }
+            deliver(batch);
+        } catch (Throwable throwable) {
+            this.plugin.getLogger().log(Level.SEVERE, "could not deliver the last batch of a closing observer", throwable);
+        }
+    }
+
+    private void deliver() {
+        cancelFlush();
+        if (this.buffer.isEmpty()) {
+            return;
+        }
+        try {
+            this.on.accept(this.view);
+        } finally {
+            this.buffer.clear();
+        }
+    }
+
+    /**
+     * Takes the pending batch while holding the lock, so that it is delivered
+     * outside of it and a slow consumer does not hold up other publishers.
+     */
+    @Nullable
+    private List<T> take() {
+        cancelFlush();
+        if (this.buffer.isEmpty()) {
+            return null;
+        }
+        List<T> batch = new ArrayList<>(this.buffer);
+        this.buffer.clear();
+        return batch;
+    }
+
+    private void deliver(@Nullable List<T> batch) {
+        if (batch != null) {
+            this.on.accept(Collections.unmodifiableList(batch));
+        }
+    }
+
+    private void cancelFlush() {
+        if (this.flush != null) {
+            this.flush.cancel();
+            this.flush = null;
+        }
+    }
+}
\ No newline at end of file
@@ -24,95 +24,174 @@
 
 package me.atilt.buddy.event;
 
-import com.github.benmanes.caffeine.cache.CacheLoader;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.base.Preconditions;
+import me.atilt.buddy.event.builder.AsyncEventBuilder;
 import me.atilt.buddy.event.builder.ObservableEventBuilder;
+import me.atilt.buddy.event.builder.WindowEventBuilder;
+import me.atilt.buddy.event.delivery.OverflowPolicy;
 import me.atilt.buddy.event.lifecycle.IndefiniteLifecycle;
+import me.atilt.buddy.event.lifecycle.Lifecycles;
 import me.atilt.buddy.event.lifecycle.stage.ExpirationPolicy;
 import me.atilt.buddy.event.lifecycle.Lifecycle;
+import me.atilt.buddy.event.window.Aggregation;
+import me.atilt.buddy.event.window.ThresholdListener;
 import me.atilt.buddy.function.Consumers;
-import me.atilt.buddy.pattern.Builder;
-import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
-import org.bukkit.event.HandlerList;
-import org.bukkit.event.Listener;
-import org.bukkit.plugin.EventExecutor;
+import org.bukkit.event.block.BlockEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.plugin.Plugin;
-import org.checkerframework.checker.nullness.qual.Nullable;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
-import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
-import java.lang.invoke.MethodType;
+import javax.annotation.Nullable;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
-class DefaultEventObserver<E extends Event> implements ObservableEvent<E>, EventExecutor, Listener {
-
-    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
-    private static final LoadingCache<Class<? extends Event>, MethodHandle> HANDLE_CACHE = Caffeine
-            .newBuilder()
-            .expireAfterAccess(Duration.ofMinutes(10))
-            .initialCapacity(20)
-            .build(new CacheLoader<Class<? extends Event>, MethodHandle>() {
-                @Override
-                public @Nullable MethodHandle load(Class<? extends Event> clazz) throws NoSuchMethodException, IllegalAccessException {
-                    return LOOKUP.findStatic(clazz, "getHandlerList", MethodType.methodType(HandlerList.class));
-                }
-            });
+class DefaultEventObserver<E extends Event> implements ObservableEvent<E> {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<DefaultEventObserver, ObserverRecorder> RECORDER =
+            AtomicReferenceFieldUpdater.newUpdater(DefaultEventObserver.class, ObserverRecorder.class, "recorder");
 
+    private final EventManager eventManager;
+    private final EventDispatcher[] dispatchers;
     private final Lifecycle<E> lifecycle;
     private final Class<E> eventType;
     private final EventPriority priority;
     private final List<Predicate<E>> only = new ArrayList<>();
+    private final List<Predicate<E>> limits;
     private final Consumer<E> on;
-
-    private DefaultEventObserver(@Nonnull Lifecycle<E> lifecycle, @Nonnull Class<E> eventType, @Nonnull EventPriority priority, @Nonnull List<Predicate<E>> only, @Nonnull Consumer<E> on) {
-        Objects.requireNonNull(lifecycle, "lifecycle");
-        Objects.requireNonNull(eventType, "eventType");
-        Objects.requireNonNull(only, "only");
-        Objects.requireNonNull(on, "on");
-        this.lifecycle = lifecycle;
-        this.eventType = eventType;
-        this.priority = priority;
-        this.only.addAll(only);
+    // stateful stages are kept as factories, an inheriting observer starts with state of its own
+    private final List<Supplier<Predicate<E>>> limitStages;
+    private final Supplier<Consumer<E>> onStage;
+    private final EventKey<E> key;
+    private final boolean adaptive;
+    private final boolean concurrent;
+    private final EventFilter<E> filter;
+    private final ObserverScope scope;
+    private volatile Throwable origin;
+    private volatile String site;
+    private volatile ObserverRecorder recorder;
+    private final AtomicBoolean unregistered = new AtomicBoolean();
+    private volatile ExpiryWheel.Entry deadline;
+    boolean reloadable;
+
+    private DefaultEventObserver(@Nonnull EventDispatcher[] dispatchers, @Nonnull DefaultObservableEventBuilder<E> builder,
+                                 @Nonnull List<Predicate<E>> limits, @Nonnull Consumer<E> on) {
+        Objects.requireNonNull(dispatchers, "dispatchers");
+        Objects.requireNonNull(builder, "builder");
+        this.eventManager = builder.eventManager;
+        this.dispatchers = dispatchers;
+        this.lifecycle = builder.lifecycle;
+        this.eventType = builder.eventType;
+        this.priority = builder.priority;
+        this.only.addAll(builder.only);
+        this.limits = limits;
         this.on = on;
+        this.limitStages = new ArrayList<>(builder.limits);
+        this.onStage = builder.on;
+        this.key = builder.key;
+        this.adaptive = builder.adaptive;
+        this.concurrent = builder.concurrent;
+        this.scope = builder.scope;
+        // filling in the stack is cheap, turning it into elements is left to the first report
+        this.origin = new Throwable();
+        this.filter = EventFilter.compile(this.lifecycle, filter(this.only, this.limits, this.adaptive, this.concurrent));
     }
 
     @Nonnull
-    protected static <E extends Event> ObservableEventBuilder<E> newBuilder(@Nonnull Plugin plugin, @Nonnull Class<E> eventType) {
-        Objects.requireNonNull(plugin, "plugin");
-        Objects.requireNonNull(eventType, "eventType");
-        return new DefaultObservableEventBuilder<>(plugin, eventType);
+    private static <E> Predicate<E> filter(@Nonnull List<Predicate<E>> only, @Nonnull List<Predicate<E>> limits, boolean adaptive, boolean concurrent) {
+        Predicate<E> filters = null;
+        if (adaptive && only.size() > 1) {
+            AdaptivePredicate<E> predicate = new AdaptivePredicate<>(only);
+            if (concurrent) {
+                predicate.concurrent();
+            }
+            filters = predicate;
+        }
+        if (limits.isEmpty()) {
+            return filters != null ? filters : EventFilter.all(only);
+        }
+        // stateful limits only see events every other filter accepted, so they are never reordered
+        List<Predicate<E>> chain = new ArrayList<>(only.size() + limits.size());
+        if (filters != null) {
+            chain.add(filters);
+        } else {
+            chain.addAll(only);
+        }
+        chain.addAll(limits);
+        return EventFilter.all(chain);
     }
 
-    private void unregisterListener(@Nonnull Class<? extends Event> eventClass, @Nonnull Listener listener) throws Throwable {
-        MethodHandle methodHandle = HANDLE_CACHE.get(eventClass);
+    @Nonnull
+    protected static <E extends Event> ObservableEventBuilder<E> newBuilder(@Nonnull EventManager eventManager, @Nonnull Class<E> eventType) {
+        Objects.requireNonNull(eventManager, "eventManager");
+        Objects.requireNonNull(eventType, "eventType");
+        return new DefaultObservableEventBuilder<>(eventManager, eventType);
+    }
 
-        HandlerList handlerList = (HandlerList) methodHandle.invokeExact();
-        handlerList.unregister(listener);
+    @Override
+    public void close() {
+        expire();
     }
 
-    private void unregisterListener(@Nonnull Event event, @Nonnull Listener listener) {
-        event.getHandlers().unregister(listener);
+    private boolean expire() {
+        this.lifecycle.close();
+        if (this.scope != null) {
+            this.scope.leave(this);
+        }
+        if (!this.unregistered.compareAndSet(false, true)) {
+            return false;
+        }
+        this.eventManager.cancelExpiry(this.deadline);
+        for (EventDispatcher dispatcher : this.dispatchers) {
+            dispatcher.unregisterLater(this);
+        }
+        closeDelivery();
+        return true;
     }
 
-    @Override
-    public void close() {
+    /**
+     * Ends an observer that a reload has already dropped from its dispatchers.
+     */
+    void retire() {
         this.lifecycle.close();
+        if (this.scope != null) {
+            this.scope.leave(this);
+        }
+        if (this.unregistered.compareAndSet(false, true)) {
+            this.eventManager.cancelExpiry(this.deadline);
+            closeDelivery();
+        }
+    }
 
-        try {
-            unregisterListener(this.eventType, this);
-        } catch (Throwable exception) {
-            exception.printStackTrace();
+    private void closeDelivery() {
+        if (this.on instanceof BatchDelivery) {
+            ((BatchDelivery<?, ?>) this.on).close();
+        }
+    }
+
+    private void expireAtDeadline() {
+        ObserverRecorder recorder = this.recorder;
+        if (expire() && recorder != null) {
+            recorder.expired();
         }
     }
 
@@ -151,61 +230,130 @@ class DefaultEventObserver<E extends Event> implements ObservableEvent<E>, Event
         return this.on;
     }
 
-    @Override
-    public void execute(Listener listener, Event event) {
-        if (!this.eventType.isInstance(event)) {
-            return;
-        }
-        if (closed()) {
-            unregisterListener(event, listener);
-            return;
-        }
-        E found = this.eventType.cast(event);
-
-        ExpirationPolicy expirationPolicy = this.lifecycle.expirationPolicy();
-        if (expirationPolicy.hard()) {
-            if (this.lifecycle.test(found)) {
-                this.lifecycle.close();
-                unregisterListener(event, listener);
-                return;
-            }
+    @Nonnull
+    EventDispatcher[] dispatchers() {
+        return this.dispatchers;
+    }
+
+    @Nullable
+    EventKey<E> key() {
+        return this.key;
+    }
+
+    @Nonnull
+    String site() {
+        String site = this.site;
+        if (site != null) {
+            return site;
+        }
+        Throwable origin = this.origin;
+        if (origin == null) {
+            return this.site;
         }
+        site = SlowHandlerDetector.site(origin);
+        this.site = site;
+        this.origin = null;
+        return site;
+    }
 
-        for (Predicate<E> predicate : this.only) {
-            if (!predicate.test(found)) {
-                return;
-            }
+    @Nullable
+    ObserverRecorder recorder() {
+        return this.recorder;
+    }
+
+    /**
+     * Executes the observer, logging instead of propagating anything it throws so that
+     * one failing observer never keeps the others of its dispatcher from the event.
+     */
+    void dispatch(@Nonnull E found, boolean instrumented) {
+        try {
+            execute(found, instrumented);
+        } catch (Throwable throwable) {
+            this.eventManager.failed(found, throwable);
+        }
+    }
+
+    void execute(@Nonnull E found, boolean instrumented) {
+        if (instrumented) {
+            executeInstrumented(found);
+        } else {
+            execute(found);
         }
+    }
 
-        if (expirationPolicy.soft()) {
-            if (this.lifecycle.test(found)) {
-                this.lifecycle.close();
-                unregisterListener(event, listener);
-                return;
-            }
+    void execute(@Nonnull E found) {
+        switch (this.filter.test(found)) {
+            case EventFilter.ACCEPT:
+                this.on.accept(found);
+                break;
+            case EventFilter.EXPIRE:
+                close();
+                break;
+            default:
+                break;
         }
+    }
 
-        this.on.accept(found);
+    private void executeInstrumented(@Nonnull E found) {
+        boolean metrics = this.eventManager.metrics().enabled();
+        ObserverRecorder recorder = this.recorder;
+        if (metrics && recorder == null) {
+            // threads of an asynchronous event race to create it, only one recorder may win
+            recorder = new ObserverRecorder();
+            if (!RECORDER.compareAndSet(this, null, recorder)) {
+                recorder = this.recorder;
+            }
+        }
+        long start = System.nanoTime();
+        switch (this.filter.test(found)) {
+            case EventFilter.ACCEPT:
+                long accepted = System.nanoTime();
+                this.on.accept(found);
+                long end = System.nanoTime();
+                if (metrics) {
+                    recorder.invoked(end - start);
+                }
+                this.eventManager.slowHandlers().record(this, end - accepted);
+                break;
+            case EventFilter.EXPIRE:
+                if (expire() && metrics) {
+                    recorder.expired();
+                }
+                break;
+            default:
+                if (metrics) {
+                    recorder.filtered();
+                }
+                break;
+        }
     }
 
     private static final class DefaultObservableEventBuilder<E extends Event> implements ObservableEventBuilder<E> {
 
-        private final Plugin plugin;
+        private static final Function<Event, Block> BLOCK_POSITION = event -> ((BlockEvent) event).getBlock();
+        private static final Function<Event, Block> INTERACT_POSITION = event -> ((PlayerInteractEvent) event).getClickedBlock();
+
+        private final EventManager eventManager;
 
         private Lifecycle<E> lifecycle;
         private Class<E> eventType;
         private EventPriority priority;
         private List<Predicate<E>> only = new ArrayList<>();
-        private Consumer<E> on;
-
-        private DefaultObservableEventBuilder(@Nonnull Plugin plugin, @Nonnull Class<E> eventType) {
-            Objects.requireNonNull(plugin, "plugin");
+        private List<Supplier<Predicate<E>>> limits = new ArrayList<>();
+        private Supplier<Consumer<E>> on;
+        private EventKey<E> key;
+        private boolean adaptive;
+        private boolean concurrent;
+        private ObserverScope scope;
+
+        private DefaultObservableEventBuilder(@Nonnull EventManager eventManager, @Nonnull Class<E> eventType) {
+            Objects.requireNonNull(eventManager, "eventManager");
             Objects.requireNonNull(eventType, "eventType");
-            this.plugin = plugin;
+            this.eventManager = eventManager;
             this.lifecycle = new IndefiniteLifecycle<>(ExpirationPolicy.HARD);
             this.eventType = eventType;
             this.priority = EventPriority.NORMAL;
-            this.on = Consumers.empty();
+            this.on = Consumers::empty;
         }
 
         @Nonnull
@@ -236,28 +384,319 @@ class DefaultEventObserver<E extends Event> implements ObservableEvent<E>, Event
         @Override
         public ObservableEventBuilder<E> on(@Nonnull Consumer<E> on) {
             Objects.requireNonNull(on, "on");
+            this.on = () -> on;
+            return this;
+        }
+
+        @Nonnull
+        private ObservableEventBuilder<E> stage(@Nonnull Supplier<Consumer<E>> on) {
             this.on = on;
             return this;
         }
 
         @Nonnull
         @Override
-        public Builder<ObservableEvent<E>> inherit(@Nonnull ObservableEvent<E> type) {
+        public <K> ObservableEventBuilder<E> throttle(@Nonnull Function<E, K> key, @Nonnull Duration interval) {
+            Objects.requireNonNull(key, "key");
+            Objects.requireNonNull(interval, "interval");
+            Preconditions.checkArgument(!interval.isNegative() && !interval.isZero(), "invalid interval: %s", interval);
+            long nanos = interval.toNanos();
+            this.limits.add(() -> new KeyedRateLimit<>(key, nanos, false));
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public <K> ObservableEventBuilder<E> debounce(@Nonnull Function<E, K> key, @Nonnull Duration interval) {
+            Objects.requireNonNull(key, "key");
+            Objects.requireNonNull(interval, "interval");
+            Preconditions.checkArgument(!interval.isNegative() && !interval.isZero(), "invalid interval: %s", interval);
+            long nanos = interval.toNanos();
+            this.limits.add(() -> new KeyedRateLimit<>(key, nanos, true));
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public ObservableEventBuilder<E> adaptive() {
+            this.adaptive = true;
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public ObservableEventBuilder<E> concurrent() {
+            this.concurrent = true;
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public <T> AsyncEventBuilder<E, T> async(@Nonnull Executor executor, @Nonnull Function<E, T> snapshot) {
+            Objects.requireNonNull(executor, "executor");
+            Objects.requireNonNull(snapshot, "snapshot");
+            return new DefaultAsyncEventBuilder<>(this, executor, snapshot);
+        }
+
+        @Nonnull
+        @Override
+        public ObservableEventBuilder<E> batch(@Nonnegative int ticks, @Nonnegative int maxSize, @Nonnull Consumer<List<E>> on) {
+            return batch(Function.identity(), ticks, maxSize, on);
+        }
+
+        @Nonnull
+        @Override
+        public <T> ObservableEventBuilder<E> batch(@Nonnull Function<E, T> extractor, @Nonnegative int ticks, @Nonnegative int maxSize, @Nonnull Consumer<List<T>> on) {
+            Objects.requireNonNull(extractor, "extractor");
+            Objects.requireNonNull(on, "on");
+            Plugin plugin = this.eventManager.plugin();
+            return stage(() -> new BatchDelivery<>(plugin, extractor, ticks, maxSize, on));
+        }
+
+        @Nonnull
+        @Override
+        public <K> WindowEventBuilder<E> window(@Nonnull Function<E, K> key, @Nonnull Duration window) {
+            Objects.requireNonNull(key, "key");
+            Objects.requireNonNull(window, "window");
+            Preconditions.checkArgument(!window.isNegative() && !window.isZero(), "invalid window: %s", window);
+            return new DefaultWindowEventBuilder<>(this, key, window.toNanos());
+        }
+
+        @Nonnull
+        @Override
+        public ObservableEventBuilder<E> scope(@Nonnull ObserverScope scope) {
+            Objects.requireNonNull(scope, "scope");
+            this.scope = scope;
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public <K> ObservableEventBuilder<E> keyedBy(@Nonnull Function<E, K> function, @Nonnull K key) {
+            Objects.requireNonNull(function, "function");
+            Objects.requireNonNull(key, "key");
+            Preconditions.checkState(!(this.key instanceof EventKey.RegionKey), "already keyed by a region");
+            this.key = new EventKey.ObjectKey<>(function, key);
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public ObservableEventBuilder<E> keyedBy(@Nonnull ToIntFunction<E> function, int key) {
+            Objects.requireNonNull(function, "function");
+            Preconditions.checkState(!(this.key instanceof EventKey.RegionKey), "already keyed by a region");
+            this.key = new EventKey.IntKey<>(function, key);
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        @SuppressWarnings("unchecked")
+        public ObservableEventBuilder<E> within(@Nonnull World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            Objects.requireNonNull(world, "world");
+            Function<Event, Block> position;
+            if (BlockEvent.class.isAssignableFrom(this.eventType)) {
+                position = BLOCK_POSITION;
+            } else if (PlayerInteractEvent.class.isAssignableFrom(this.eventType)) {
+                position = INTERACT_POSITION;
+            } else {
+                throw new IllegalArgumentException("no block position for " + this.eventType.getName() + ", provide one explicitly");
+            }
+            return within((Function<E, Block>) (Function<?, Block>) position, world, minX, minY, minZ, maxX, maxY, maxZ);
+        }
+
+        @Nonnull
+        @Override
+        public ObservableEventBuilder<E> within(@Nonnull Function<E, Block> position, @Nonnull World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            Objects.requireNonNull(position, "position");
+            Objects.requireNonNull(world, "world");
+            Preconditions.checkState(this.key == null || this.key instanceof EventKey.RegionKey, "already keyed by a function");
+            this.key = new EventKey.RegionKey<>(position, world, minX, minY, minZ, maxX, maxY, maxZ);
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public ObservableEventBuilder<E> inherit(@Nonnull ObservableEvent<E> type) {
             Objects.requireNonNull(type, "type");
             this.lifecycle = type.lifecycle();
             this.eventType = type.eventType();
             this.priority = type.priority();
             this.only = type.only();
-            this.on = type.on();
+            if (type instanceof DefaultEventObserver) {
+                DefaultEventObserver<E> observer = (DefaultEventObserver<E>) type;
+                this.on = observer.onStage;
+                this.key = observer.key;
+                this.limits = new ArrayList<>(observer.limitStages);
+                this.adaptive = observer.adaptive;
+                this.concurrent = observer.concurrent;
+                this.scope = observer.scope;
+            } else {
+                Consumer<E> on = type.on();
+                this.on = () -> on;
+            }
             return this;
         }
 
         @Nonnull
         @Override
         public ObservableEvent<E> build() {
-            final DefaultEventObserver<E> defaultEventObserver = new DefaultEventObserver<>(this.lifecycle, this.eventType, this.priority, this.only, this.on);
-            Bukkit.getPluginManager().registerEvent(this.eventType, defaultEventObserver, this.priority, defaultEventObserver, this.plugin, false);
+            final Consumer<E> on = this.on.get();
+            // a synchronous event would park the server thread on a full queue
+            Preconditions.checkState(this.concurrent || !(on instanceof AsyncDelivery) || !((AsyncDelivery<?, ?>) on).blocking(),
+                    "BLOCK overflow requires a concurrent() observer of an asynchronous event");
+            final List<Predicate<E>> limits = new ArrayList<>(this.limits.size());
+            for (Supplier<Predicate<E>> limit : this.limits) {
+                limits.add(limit.get());
+            }
+            if (this.concurrent) {
+                for (Predicate<E> limit : limits) {
+                    if (limit instanceof ConcurrentStage) {
+                        ((ConcurrentStage) limit).concurrent();
+                    }
+                }
+                if (on instanceof ConcurrentStage) {
+                    ((ConcurrentStage) on).concurrent();
+                }
+            }
+            final EventDispatcher[] dispatchers = this.eventManager.dispatchers(this.eventType, this.priority);
+            final DefaultEventObserver<E> defaultEventObserver = new DefaultEventObserver<>(dispatchers, this, limits, on);
+            if (this.scope != null) {
+                this.scope.join(defaultEventObserver);
+            }
+            if (!this.eventManager.stage(defaultEventObserver)) {
+                for (EventDispatcher dispatcher : dispatchers) {
+                    dispatcher.register(defaultEventObserver);
+                }
+            }
+            OptionalLong deadline = Lifecycles.deadline(this.lifecycle);
+            if (deadline.isPresent()) {
+                defaultEventObserver.deadline = this.eventManager.expireAt(deadline.getAsLong(), defaultEventObserver::expireAtDeadline);
+            }
             return defaultEventObserver;
         }
     }
+
+    private static final class DefaultAsyncEventBuilder<E extends Event, T> implements AsyncEventBuilder<E, T> {
+
+        private static final int DEFAULT_CAPACITY = 1024;
+
+        private final DefaultObservableEventBuilder<E> parent;
+        private final Executor executor;
+        private final Function<E, T> snapshot;
+        private int capacity = DEFAULT_CAPACITY;
+        private OverflowPolicy overflow = OverflowPolicy.DROP_OLDEST;
+
+        private DefaultAsyncEventBuilder(@Nonnull DefaultObservableEventBuilder<E> parent, @Nonnull Executor executor, @Nonnull Function<E, T> snapshot) {
+            this.parent = parent;
+            this.executor = executor;
+            this.snapshot = snapshot;
+        }
+
+        @Nonnull
+        @Override
+        public AsyncEventBuilder<E, T> capacity(@Nonnegative int capacity) {
+            Preconditions.checkArgument(capacity > 0, "invalid capacity: %s", capacity);
+            this.capacity = capacity;
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public AsyncEventBuilder<E, T> overflow(@Nonnull OverflowPolicy overflow) {
+            Objects.requireNonNull(overflow, "overflow");
+            this.overflow = overflow;
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public ObservableEventBuilder<E> on(@Nonnull Consumer<T> on) {
+            Objects.requireNonNull(on, "on");
+            Plugin plugin = this.parent.eventManager.plugin();
+            Executor executor = this.executor;
+            Function<E, T> snapshot = this.snapshot;
+            int capacity = this.capacity;
+            OverflowPolicy overflow = this.overflow;
+            return this.parent.stage(() -> new AsyncDelivery<>(plugin, executor, snapshot, on, capacity, overflow));
+        }
+    }
+
+    private static final class DefaultWindowEventBuilder<E extends Event, K> implements WindowEventBuilder<E> {
+
+        private static final int DEFAULT_BUCKETS = 8;
+
+        private final DefaultObservableEventBuilder<E> parent;
+        private final Function<E, K> key;
+        private final long window;
+        private int buckets = DEFAULT_BUCKETS;
+        private Aggregation aggregation = Aggregation.COUNT;
+        private ToLongFunction<E> value;
+
+        private DefaultWindowEventBuilder(@Nonnull DefaultObservableEventBuilder<E> parent, @Nonnull Function<E, K> key, @Nonnegative long window) {
+            this.parent = parent;
+            this.key = key;
+            this.window = window;
+        }
+
+        @Nonnull
+        @Override
+        public WindowEventBuilder<E> buckets(@Nonnegative int buckets) {
+            Preconditions.checkArgument(buckets > 0, "invalid buckets: %s", buckets);
+            this.buckets = buckets;
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public WindowEventBuilder<E> tumbling() {
+            return buckets(1);
+        }
+
+        @Nonnull
+        @Override
+        public WindowEventBuilder<E> count() {
+            this.aggregation = Aggregation.COUNT;
+            this.value = null;
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public WindowEventBuilder<E> sum(@Nonnull ToLongFunction<E> value) {
+            return aggregate(Aggregation.SUM, value);
+        }
+
+        @Nonnull
+        @Override
+        public WindowEventBuilder<E> min(@Nonnull ToLongFunction<E> value) {
+            return aggregate(Aggregation.MIN, value);
+        }
+
+        @Nonnull
+        @Override
+        public WindowEventBuilder<E> max(@Nonnull ToLongFunction<E> value) {
+            return aggregate(Aggregation.MAX, value);
+        }
+
+        @Nonnull
+        private WindowEventBuilder<E> aggregate(@Nonnull Aggregation aggregation, @Nonnull ToLongFunction<E> value) {
+            Objects.requireNonNull(value, "value");
+            this.aggregation = aggregation;
+            this.value = value;
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public ObservableEventBuilder<E> threshold(long threshold, @Nonnull ThresholdListener<E> on) {
+            Objects.requireNonNull(on, "on");
+            Function<E, K> key = this.key;
+            ToLongFunction<E> value = this.value;
+            Aggregation aggregation = this.aggregation;
+            long window = this.window;
+            int buckets = this.buckets;
+            return this.parent.stage(() -> new WindowedAggregate<>(key, value, aggregation, window, buckets, threshold, on));
+        }
+    }
 }
\ No newline at end of file
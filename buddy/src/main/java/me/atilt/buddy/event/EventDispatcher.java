@@ -0,0 +1,450 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dispatches the events of one handler list and priority to every observer bucket
+ * whose observed type matches the event.
+ * <p>
+ * The matching buckets of each runtime event class are resolved once and cached in a
+ * {@link ClassValue}. A cached route remembers the bucket array it was built from and is
+ * rebuilt when that array has been replaced, so dispatching needs no instance checks.
+ * Observers therefore run by bucket, unkeyed before keyed, and not in registration order.
+ */
+final class EventDispatcher implements EventExecutor, Listener {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final DefaultEventObserver<?>[] EMPTY = new DefaultEventObserver<?>[0];
+    private static final KeyedObservers<?>[] NO_INDEXES = new KeyedObservers<?>[0];
+    private static final Bucket<?>[] NO_BUCKETS = new Bucket<?>[0];
+    private static final EventWaiter<?>[] NO_WAITERS = new EventWaiter<?>[0];
+
+    private final EventManager eventManager;
+    private final Class<? extends Event> handlerType;
+    private final EventPriority priority;
+    private final EventMetrics metrics;
+    private final SlowHandlerDetector slowHandlers;
+    private final List<DefaultEventObserver<?>> pending = new ArrayList<>();
+    private final Set<Class<?>> routed = ConcurrentHashMap.newKeySet();
+    private final ClassValue<Route> routes = new ClassValue<Route>() {
+        @Override
+        protected Route computeValue(Class<?> type) {
+            EventDispatcher.this.routed.add(type);
+            return route(type);
+        }
+    };
+    private HandlerList handlerList;
+
+    private volatile Bucket<?>[] buckets = NO_BUCKETS;
+    private volatile EventWaiter<?>[] waiters = NO_WAITERS;
+
+    EventDispatcher(@Nonnull EventManager eventManager, @Nonnull Class<? extends Event> handlerType, @Nonnull EventPriority priority) {
+        Objects.requireNonNull(eventManager, "eventManager");
+        Objects.requireNonNull(handlerType, "handlerType");
+        Objects.requireNonNull(priority, "priority");
+        this.eventManager = eventManager;
+        this.handlerType = handlerType;
+        this.priority = priority;
+        this.metrics = eventManager.metrics();
+        this.slowHandlers = eventManager.slowHandlers();
+    }
+
+    @Nonnull
+    static HandlerList handlerList(@Nonnull Class<? extends Event> eventType) {
+        Objects.requireNonNull(eventType, "eventType");
+        try {
+            MethodHandle methodHandle = LOOKUP.findStatic(eventType, "getHandlerList", MethodType.methodType(HandlerList.class));
+            return (HandlerList) methodHandle.invokeExact();
+        } catch (Throwable exception) {
+            throw new IllegalArgumentException("no handler list for " + eventType.getName(), exception);
+        }
+    }
+
+    void registerListener(@Nonnull Plugin plugin) {
+        Objects.requireNonNull(plugin, "plugin");
+        Bukkit.getPluginManager().registerEvent(this.handlerType, this, this.priority, this, plugin, false);
+        this.handlerList = handlerList(this.handlerType);
+    }
+
+    @Nonnull
+    Class<? extends Event> handlerType() {
+        return this.handlerType;
+    }
+
+    @Nonnull
+    EventPriority priority() {
+        return this.priority;
+    }
+
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    static <E extends Event> DefaultEventObserver<E>[] append(@Nullable DefaultEventObserver<E>[] observers, @Nonnull DefaultEventObserver<E> observer) {
+        if (observers == null) {
+            return new DefaultEventObserver[]{observer};
+        }
+        DefaultEventObserver<E>[] next = Arrays.copyOf(observers, observers.length + 1);
+        next[observers.length] = observer;
+        return next;
+    }
+
+    @Nullable
+    static <E extends Event> DefaultEventObserver<E>[] remove(@Nonnull DefaultEventObserver<E>[] observers, @Nonnull DefaultEventObserver<E> observer) {
+        for (int i = 0; i < observers.length; i++) {
+            if (observers[i] != observer) {
+                continue;
+            }
+            if (observers.length == 1) {
+                return null;
+            }
+            DefaultEventObserver<E>[] next = Arrays.copyOf(observers, observers.length - 1);
+            System.arraycopy(observers, i + 1, next, i, observers.length - i - 1);
+            return next;
+        }
+        return observers;
+    }
+
+    @Nonnull
+    private Route route(@Nonnull Class<?> type) {
+        Bucket<?>[] buckets = this.buckets;
+        List<Bucket<?>> matched = new ArrayList<>(buckets.length);
+        for (Bucket<?> bucket : buckets) {
+            if (bucket.type.isAssignableFrom(type)) {
+                matched.add(bucket);
+            }
+        }
+        return new Route(buckets, matched.toArray(NO_BUCKETS));
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private <E extends Event> Bucket<E> bucket(@Nonnull Class<E> type) {
+        for (Bucket<?> bucket : this.buckets) {
+            if (bucket.type == type) {
+                return (Bucket<E>) bucket;
+            }
+        }
+        return null;
+    }
+
+    synchronized <E extends Event> void register(@Nonnull DefaultEventObserver<E> observer) {
+        Objects.requireNonNull(observer, "observer");
+        Bucket<E> bucket = bucket(observer.eventType());
+        if (bucket == null) {
+            bucket = new Bucket<>(observer.eventType());
+            Bucket<?>[] current = this.buckets;
+            Bucket<?>[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = bucket;
+            this.buckets = next;
+        }
+        bucket.register(observer);
+    }
+
+    synchronized void await(@Nonnull EventWaiter<?> waiter) {
+        Objects.requireNonNull(waiter, "waiter");
+        EventWaiter<?>[] current = this.waiters;
+        EventWaiter<?>[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = waiter;
+        this.waiters = next;
+    }
+
+    synchronized void release(@Nonnull EventWaiter<?> waiter) {
+        EventWaiter<?>[] current = this.waiters;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] != waiter) {
+                continue;
+            }
+            EventWaiter<?>[] next = Arrays.copyOf(current, current.length - 1);
+            System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+            this.waiters = next.length == 0 ? NO_WAITERS : next;
+            return;
+        }
+    }
+
+    void unregisterLater(@Nonnull DefaultEventObserver<?> observer) {
+        Objects.requireNonNull(observer, "observer");
+        synchronized (this) {
+            this.pending.add(observer);
+            if (this.pending.size() > 1) {
+                return;
+            }
+        }
+        this.eventManager.flushLater(this);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    synchronized void flush() {
+        if (this.pending.isEmpty()) {
+            return;
+        }
+        Map<Class<?>, List<DefaultEventObserver<?>>> byType = new IdentityHashMap<>();
+        for (DefaultEventObserver<?> observer : this.pending) {
+            byType.computeIfAbsent(observer.eventType(), type -> new ArrayList<>()).add(observer);
+        }
+        this.pending.clear();
+
+        List<Bucket<?>> remaining = new ArrayList<>(this.buckets.length);
+        for (Bucket bucket : this.buckets) {
+            List<DefaultEventObserver<?>> removed = byType.get(bucket.type);
+            if (removed != null) {
+                bucket.unregister(removed);
+            }
+            if (!bucket.empty()) {
+                remaining.add(bucket);
+            }
+        }
+        if (remaining.size() != this.buckets.length) {
+            this.buckets = remaining.toArray(NO_BUCKETS);
+        }
+    }
+
+    /**
+     * Replaces every reloadable observer with the staged ones by publishing freshly built
+     * buckets in a single write. Dispatches in flight finish on the buckets they started with.
+     *
+     * @param staged the new reloadable observers of this dispatcher
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    synchronized void swap(@Nonnull List<DefaultEventObserver<?>> staged) {
+        Objects.requireNonNull(staged, "staged");
+        List<DefaultEventObserver<?>> current = new ArrayList<>();
+        collect(current);
+        boolean reloadable = !staged.isEmpty();
+        for (int i = 0; !reloadable && i < current.size(); i++) {
+            reloadable = current.get(i).reloadable;
+        }
+        if (!reloadable) {
+            return;
+        }
+        Map<Class<?>, Bucket> next = new LinkedHashMap<>();
+        for (Bucket<?> bucket : this.buckets) {
+            next.put(bucket.type, new Bucket<>(bucket.type));
+        }
+        for (DefaultEventObserver observer : current) {
+            if (!observer.reloadable) {
+                next.get(observer.eventType()).register(observer);
+            }
+        }
+        for (DefaultEventObserver observer : staged) {
+            next.computeIfAbsent(observer.eventType(), type -> new Bucket((Class) type)).register(observer);
+        }
+        next.values().removeIf(Bucket::empty);
+        this.buckets = next.values().toArray(NO_BUCKETS);
+    }
+
+    void collect(@Nonnull Collection<? super DefaultEventObserver<?>> observers) {
+        for (Bucket<?> bucket : this.buckets) {
+            bucket.collect(observers);
+        }
+    }
+
+    void close() {
+        if (this.handlerList != null) {
+            this.handlerList.unregister(this);
+        }
+        // routes are attached to the event classes, which outlive this dispatcher
+        for (Class<?> type : this.routed) {
+            this.routes.remove(type);
+        }
+        this.routed.clear();
+        for (EventWaiter<?> waiter : this.waiters) {
+            waiter.future().cancel(false);
+        }
+    }
+
+    @Override
+    public void execute(Listener listener, Event event) {
+        Class<? extends Event> type = event.getClass();
+        Route route = this.routes.get(type);
+        if (route.source != this.buckets) {
+            this.routes.remove(type);
+            route = this.routes.get(type);
+        }
+        Bucket<?>[] matched = route.matched;
+        if (matched.length != 0) {
+            boolean instrumented = this.metrics.enabled() || this.slowHandlers.enabled();
+            for (Bucket<?> bucket : matched) {
+                bucket.execute(this.eventManager, event, instrumented);
+            }
+        }
+        EventWaiter<?>[] waiters = this.waiters;
+        for (EventWaiter<?> waiter : waiters) {
+            try {
+                waiter.offer(event);
+            } catch (Throwable throwable) {
+                this.eventManager.failed(event, throwable);
+            }
+        }
+    }
+
+    private static final class Route {
+
+        private final Bucket<?>[] source;
+        private final Bucket<?>[] matched;
+
+        private Route(@Nonnull Bucket<?>[] source, @Nonnull Bucket<?>[] matched) {
+            this.source = source;
+            this.matched = matched;
+        }
+    }
+
+    /**
+     * The observers of one observed type: a flat array for unkeyed observers and
+     * one index per distinct key function.
+     */
+    private static final class Bucket<E extends Event> {
+
+        private final Class<E> type;
+
+        @SuppressWarnings("unchecked")
+        private volatile DefaultEventObserver<E>[] observers = (DefaultEventObserver<E>[]) EMPTY;
+        @SuppressWarnings("unchecked")
+        private volatile KeyedObservers<E>[] indexes = (KeyedObservers<E>[]) NO_INDEXES;
+
+        private Bucket(@Nonnull Class<E> type) {
+            this.type = type;
+        }
+
+        @Nullable
+        private KeyedObservers<E> index(@Nonnull Object function) {
+            for (KeyedObservers<E> index : this.indexes) {
+                if (index.function() == function) {
+                    return index;
+                }
+            }
+            return null;
+        }
+
+        private void register(@Nonnull DefaultEventObserver<E> observer) {
+            EventKey<E> key = observer.key();
+            if (key == null) {
+                this.observers = append(this.observers, observer);
+                return;
+            }
+            KeyedObservers<E> index = index(key.function());
+            if (index == null) {
+                index = key.newIndex();
+                KeyedObservers<E>[] current = this.indexes;
+                KeyedObservers<E>[] next = Arrays.copyOf(current, current.length + 1);
+                next[current.length] = index;
+                this.indexes = next;
+            }
+            index.register(observer);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void unregister(@Nonnull List<DefaultEventObserver<E>> pending) {
+            Set<DefaultEventObserver<E>> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+            Map<Object, List<DefaultEventObserver<E>>> keyed = new IdentityHashMap<>();
+            for (DefaultEventObserver<E> observer : pending) {
+                EventKey<E> key = observer.key();
+                if (key == null) {
+                    removed.add(observer);
+                } else {
+                    keyed.computeIfAbsent(key.function(), function -> new ArrayList<>()).add(observer);
+                }
+            }
+
+            if (!removed.isEmpty()) {
+                DefaultEventObserver<E>[] current = this.observers;
+                DefaultEventObserver<E>[] next = Arrays.copyOf(current, current.length);
+                int length = 0;
+                for (DefaultEventObserver<E> observer : current) {
+                    if (!removed.contains(observer)) {
+                        next[length++] = observer;
+                    }
+                }
+                this.observers = length == 0 ? (DefaultEventObserver<E>[]) EMPTY : Arrays.copyOf(next, length);
+            }
+            if (keyed.isEmpty()) {
+                return;
+            }
+            List<KeyedObservers<E>> remaining = new ArrayList<>(this.indexes.length);
+            for (KeyedObservers<E> index : this.indexes) {
+                List<DefaultEventObserver<E>> found = keyed.get(index.function());
+                if (found != null) {
+                    index.unregister(found);
+                }
+                if (!index.empty()) {
+                    remaining.add(index);
+                }
+            }
+            this.indexes = remaining.toArray((KeyedObservers<E>[]) NO_INDEXES);
+        }
+
+        private boolean empty() {
+            return this.observers.length == 0 && this.indexes.length == 0;
+        }
+
+        private void collect(@Nonnull Collection<? super DefaultEventObserver<E>> observers) {
+            Collections.addAll(observers, this.observers);
+            for (KeyedObservers<E> index : this.indexes) {
+                index.collect(observers);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void execute(@Nonnull EventManager eventManager, @Nonnull Event event, boolean instrumented) {
+            // the route only leads here for events of this bucket's type
+            E found = (E) event;
+            for (DefaultEventObserver<E> observer : this.observers) {
+                observer.dispatch(found, instrumented);
+            }
+            for (KeyedObservers<E> index : this.indexes) {
+                // observers isolate their own failures, this only catches a throwing key function
+                try {
+                    index.execute(found, instrumented);
+                } catch (Throwable throwable) {
+                    eventManager.failed(event, throwable);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
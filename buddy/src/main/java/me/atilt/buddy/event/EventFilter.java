@@ -0,0 +1,204 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import me.atilt.buddy.event.lifecycle.IndefiniteLifecycle;
+import me.atilt.buddy.event.lifecycle.Lifecycle;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+abstract class EventFilter<E> {
+
+    static final int ACCEPT = 0;
+    static final int REJECT = 1;
+    static final int EXPIRE = 2;
+
+    private static final Predicate<?> ALWAYS = event -> true;
+
+    final Lifecycle<E> lifecycle;
+    final Predicate<E> only;
+
+    private EventFilter(@Nonnull Lifecycle<E> lifecycle, @Nonnull Predicate<E> only) {
+        this.lifecycle = lifecycle;
+        this.only = only;
+    }
+
+    abstract int test(@Nonnull E event);
+
+    @Nonnull
+    static <E> EventFilter<E> compile(@Nonnull Lifecycle<E> lifecycle, @Nonnull Predicate<E> only) {
+        Objects.requireNonNull(lifecycle, "lifecycle");
+        Objects.requireNonNull(only, "only");
+        if (lifecycle instanceof IndefiniteLifecycle) {
+            return new Indefinite<>(lifecycle, only);
+        }
+        return lifecycle.expirationPolicy().hard() ? new Hard<>(lifecycle, only) : new Soft<>(lifecycle, only);
+    }
+
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    static <E> Predicate<E> all(@Nonnull List<Predicate<E>> only) {
+        Objects.requireNonNull(only, "only");
+        switch (only.size()) {
+            case 0:
+                return (Predicate<E>) ALWAYS;
+            case 1:
+                return only.get(0);
+            case 2:
+                return new All2<>(only.get(0), only.get(1));
+            case 3:
+                return new All3<>(only.get(0), only.get(1), only.get(2));
+            case 4:
+                return new All4<>(only.get(0), only.get(1), only.get(2), only.get(3));
+            default:
+                return new AllN<>(only.toArray(new Predicate[0]));
+        }
+    }
+
+    private static final class Indefinite<E> extends EventFilter<E> {
+
+        private Indefinite(@Nonnull Lifecycle<E> lifecycle, @Nonnull Predicate<E> only) {
+            super(lifecycle, only);
+        }
+
+        @Override
+        int test(@Nonnull E event) {
+            if (this.lifecycle.closed()) {
+                return EXPIRE;
+            }
+            return this.only.test(event) ? ACCEPT : REJECT;
+        }
+    }
+
+    private static final class Hard<E> extends EventFilter<E> {
+
+        private Hard(@Nonnull Lifecycle<E> lifecycle, @Nonnull Predicate<E> only) {
+            super(lifecycle, only);
+        }
+
+        @Override
+        int test(@Nonnull E event) {
+            if (this.lifecycle.closed() || this.lifecycle.test(event)) {
+                return EXPIRE;
+            }
+            return this.only.test(event) ? ACCEPT : REJECT;
+        }
+    }
+
+    private static final class Soft<E> extends EventFilter<E> {
+
+        private Soft(@Nonnull Lifecycle<E> lifecycle, @Nonnull Predicate<E> only) {
+            super(lifecycle, only);
+        }
+
+        @Override
+        int test(@Nonnull E event) {
+            if (this.lifecycle.closed()) {
+                return EXPIRE;
+            }
+            if (!this.only.test(event)) {
+                return REJECT;
+            }
+            return this.lifecycle.test(event) ? EXPIRE : ACCEPT;
+        }
+    }
+
+    private static final class All2<E> implements Predicate<E> {
+
+        private final Predicate<E> first;
+        private final Predicate<E> second;
+
+        private All2(@Nonnull Predicate<E> first, @Nonnull Predicate<E> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean test(E event) {
+            return this.first.test(event) && this.second.test(event);
+        }
+    }
+
+    private static final class All3<E> implements Predicate<E> {
+
+        private final Predicate<E> first;
+        private final Predicate<E> second;
+        private final Predicate<E> third;
+
+        private All3(@Nonnull Predicate<E> first, @Nonnull Predicate<E> second, @Nonnull Predicate<E> third) {
+            this.first = first;
+            this.second = second;
+            this.third = third;
+        }
+
+        @Override
+        public boolean test(E event) {
+            return this.first.test(event) && this.second.test(event) && this.third.test(event);
+        }
+    }
+
+    private static final class All4<E> implements Predicate<E> {
+
+        private final Predicate<E> first;
+        private final Predicate<E> second;
+        private final Predicate<E> third;
+        private final Predicate<E> fourth;
+
+        private All4(@Nonnull Predicate<E> first, @Nonnull Predicate<E> second, @Nonnull Predicate<E> third, @Nonnull Predicate<E> fourth) {
+            this.first = first;
+            this.second = second;
+            this.third = third;
+            this.fourth = fourth;
+        }
+
+        @Override
+        public boolean test(E event) {
+            return this.first.test(event) && this.second.test(event) && this.third.test(event) && this.fourth.test(event);
+        }
+    }
+
+    private static final class AllN<E> implements Predicate<E> {
+
+        private final Predicate<E>[] only;
+
+        private AllN(@Nonnull Predicate<E>[] only) {
+            this.only = only;
+        }
+
+        @Override
+        public boolean test(E event) {
+            Predicate<E>[] only = this.only;
+            for (int i = 0; i < only.length; i++) {
+                if (!only[i].test(event)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
\ No newline at end of file
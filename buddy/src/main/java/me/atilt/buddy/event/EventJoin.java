@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Pairs a value extracted from a buffered left event with the next right event of the same key.
+ * <p>
+ * Only extracted values are buffered, never the left events themselves. Values are kept in
+ * arrival order, so expired entries are always at the head and are evicted before every access
+ * and on every tick. A full buffer evicts its oldest entry.
+ */
+final class EventJoin<A, B, K, T> {
+
+    private final Function<A, K> leftKey;
+    private final Function<A, T> leftValue;
+    private final Function<B, K> rightKey;
+    private final long window;
+    private final int capacity;
+    private final BiConsumer<T, B> on;
+    private final LinkedHashMap<K, Pending<T>> pending;
+
+    EventJoin(@Nonnull Function<A, K> leftKey, @Nonnull Function<A, T> leftValue, @Nonnull Function<B, K> rightKey,
+              @Nonnegative long window, @Nonnegative int capacity, @Nonnull BiConsumer<T, B> on) {
+        this.leftKey = leftKey;
+        this.leftValue = leftValue;
+        this.rightKey = rightKey;
+        this.window = window;
+        this.capacity = capacity;
+        this.on = on;
+        this.pending = new LinkedHashMap<K, Pending<T>>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Pending<T>> eldest) {
+                return size() > EventJoin.this.capacity;
+            }
+        };
+    }
+
+    void left(A event) {
+        K key = this.leftKey.apply(event);
+        if (key == null) {
+            return;
+        }
+        T value = this.leftValue.apply(event);
+        if (value == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (this.pending) {
+            evict(now);
+            // re-inserted so the entry moves to the tail and the head stays the oldest
+            this.pending.remove(key);
+            this.pending.put(key, new Pending<>(value, now));
+        }
+    }
+
+    void right(B event) {
+        K key = this.rightKey.apply(event);
+        if (key == null) {
+            return;
+        }
+        Pending<T> matched;
+        synchronized (this.pending) {
+            evict(System.nanoTime());
+            matched = this.pending.remove(key);
+        }
+        if (matched != null) {
+            this.on.accept(matched.value, event);
+        }
+    }
+
+    void evict() {
+        synchronized (this.pending) {
+            evict(System.nanoTime());
+        }
+    }
+
+    void clear() {
+        synchronized (this.pending) {
+            this.pending.clear();
+        }
+    }
+
+    private void evict(long now) {
+        Iterator<Pending<T>> iterator = this.pending.values().iterator();
+        while (iterator.hasNext() && now - iterator.next().timestamp > this.window) {
+            iterator.remove();
+        }
+    }
+
+    private static final class Pending<T> {
+
+        private final T value;
+        private final long timestamp;
+
+        private Pending(@Nonnull T value, long timestamp) {
+            this.value = value;
+            this.timestamp = timestamp;
+        }
+    }
+}
\ No newline at end of file
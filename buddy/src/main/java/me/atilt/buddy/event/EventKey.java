@@ -0,0 +1,170 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.Event;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+abstract class EventKey<E extends Event> {
+
+    @Nonnull
+    abstract Object function();
+
+    @Nonnull
+    abstract KeyedObservers<E> newIndex();
+
+    static final class ObjectKey<E extends Event, K> extends EventKey<E> {
+
+        private final Function<E, K> function;
+        private final K key;
+
+        ObjectKey(@Nonnull Function<E, K> function, @Nonnull K key) {
+            Objects.requireNonNull(function, "function");
+            Objects.requireNonNull(key, "key");
+            this.function = function;
+            this.key = key;
+        }
+
+        @Nonnull
+        @Override
+        Function<E, K> function() {
+            return this.function;
+        }
+
+        @Nonnull
+        K key() {
+            return this.key;
+        }
+
+        @Nonnull
+        @Override
+        KeyedObservers<E> newIndex() {
+            return new KeyedObservers.ObjectKeyed<>(this.function);
+        }
+    }
+
+    static final class IntKey<E extends Event> extends EventKey<E> {
+
+        private final ToIntFunction<E> function;
+        private final int key;
+
+        IntKey(@Nonnull ToIntFunction<E> function, int key) {
+            Objects.requireNonNull(function, "function");
+            this.function = function;
+            this.key = key;
+        }
+
+        @Nonnull
+        @Override
+        ToIntFunction<E> function() {
+            return this.function;
+        }
+
+        int key() {
+            return this.key;
+        }
+
+        @Nonnull
+        @Override
+        KeyedObservers<E> newIndex() {
+            return new KeyedObservers.IntKeyed<>(this.function);
+        }
+    }
+
+    static final class RegionKey<E extends Event> extends EventKey<E> {
+
+        private final Function<E, Block> function;
+        private final UUID world;
+        private final int minX;
+        private final int minY;
+        private final int minZ;
+        private final int maxX;
+        private final int maxY;
+        private final int maxZ;
+
+        RegionKey(@Nonnull Function<E, Block> function, @Nonnull World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            Objects.requireNonNull(function, "function");
+            Objects.requireNonNull(world, "world");
+            this.function = function;
+            this.world = world.getUID();
+            this.minX = Math.min(minX, maxX);
+            this.minY = Math.min(minY, maxY);
+            this.minZ = Math.min(minZ, maxZ);
+            this.maxX = Math.max(minX, maxX);
+            this.maxY = Math.max(minY, maxY);
+            this.maxZ = Math.max(minZ, maxZ);
+        }
+
+        @Nonnull
+        @Override
+        Function<E, Block> function() {
+            return this.function;
+        }
+
+        @Nonnull
+        UUID world() {
+            return this.world;
+        }
+
+        int minChunkX() {
+            return this.minX >> 4;
+        }
+
+        int minChunkZ() {
+            return this.minZ >> 4;
+        }
+
+        int maxChunkX() {
+            return this.maxX >> 4;
+        }
+
+        int maxChunkZ() {
+            return this.maxZ >> 4;
+        }
+
+        long chunks() {
+            return (long) (maxChunkX() - minChunkX() + 1) * (maxChunkZ() - minChunkZ() + 1);
+        }
+
+        boolean contains(int x, int y, int z) {
+            return x >= this.minX && x <= this.maxX
+                    && y >= this.minY && y <= this.maxY
+                    && z >= this.minZ && z <= this.maxZ;
+        }
+
+        @Nonnull
+        @Override
+        KeyedObservers<E> newIndex() {
+            return new KeyedObservers.RegionKeyed<>(this.function);
+        }
+    }
+}
\ No newline at end of file
@@ -24,25 +24,537 @@
 
 package me.atilt.buddy.event;
 
+import com.google.common.base.Preconditions;
+import me.atilt.buddy.closeable.Closeable;
 import me.atilt.buddy.event.builder.ObservableEventBuilder;
+import me.atilt.buddy.reloadable.Reloadable;
+import org.bukkit.Bukkit;
 import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.logging.Level;
 
-public final class EventManager {
+public final class EventManager implements Closeable, Reloadable {
+
+    private static final int PRIORITIES = EventPriority.values().length;
+    private static final int SLOW_HANDLER_CAPACITY = 256;
+    private static final int DEFAULT_JOIN_CAPACITY = 4096;
 
     private final Plugin plugin;
+    private final Map<Class<? extends Event>, EventDispatcher[]> dispatchers = new ConcurrentHashMap<>();
+    private final Map<Class<? extends Event>, List<Class<? extends Event>>> registrations = new ConcurrentHashMap<>();
+    private final EventMetrics metrics = new EventMetrics(this);
+    private final SlowHandlerDetector slowHandlers = new SlowHandlerDetector(SLOW_HANDLER_CAPACITY);
+    private final Queue<EventDispatcher> dirty = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Map<Object, ObserverScope> scopes = new ConcurrentHashMap<>();
+    private final Map<UUID, ObserverScope> playerScopes = new ConcurrentHashMap<>();
+    private final AtomicBoolean observingQuits = new AtomicBoolean();
+    private final EventMemo.Context memos = new EventMemo.Context();
+    private final List<EventJoin<?, ?, ?, ?>> joins = new CopyOnWriteArrayList<>();
+    private final ExpiryWheel expiries = new ExpiryWheel();
+    private final SignalBus signals;
+    private final List<Consumer<EventManager>> definitions = new CopyOnWriteArrayList<>();
+    private final Object reloadLock = new Object();
+    private Map<EventDispatcher, List<DefaultEventObserver<?>>> staging;
+    private volatile Thread stagingThread;
+    private BukkitTask ticker;
+    private volatile boolean closed;
 
     public EventManager(@Nonnull Plugin plugin) {
         Objects.requireNonNull(plugin, "plugin");
         this.plugin = plugin;
+        this.signals = new SignalBus(plugin);
+        ticking();
     }
 
+    /**
+     * Starts observing an event type. A type with a handler list is observed exactly like a
+     * Bukkit listener would observe it. A supertype without one, such as {@code PlayerEvent},
+     * observes every subtype found under {@code org.bukkit.event} and under the supertype's own
+     * package in the jar declaring it. Each package is scanned once and then cached.
+     * <p>
+     * Within a priority, observers run grouped by their observed type, in the order each type
+     * was first observed, rather than in the order they were built. Within a type, observers
+     * without a key run first in the order they were built, then {@link ObservableEventBuilder#keyedBy(Function, Object) keyed}
+     * and region observers. An observer relying on another one's work, such as a cancellation,
+     * should therefore observe at a later {@link ObservableEventBuilder#priority(EventPriority) priority}.
+     *
+     * @since 1.0.0
+     *
+     * @param eventType the observed type
+     * @return the observer builder
+     */
     @Nonnull
     public <E extends Event> ObservableEventBuilder<E> observe(@Nonnull Class<E> eventType) {
         Objects.requireNonNull(eventType, "eventType");
-        return DefaultEventObserver.newBuilder(this.plugin, eventType);
+        return DefaultEventObserver.newBuilder(this, eventType);
+    }
+
+    @Nonnull
+    public <E extends Event> CompletableFuture<E> next(@Nonnull Class<E> eventType, @Nonnull Predicate<E> filter, @Nonnull Duration timeout) {
+        return next(eventType, EventPriority.NORMAL, filter, timeout);
+    }
+
+    /**
+     * Waits for the next event matching the filter without building an observer. The future
+     * completes on the dispatching thread, fails with a {@link java.util.concurrent.TimeoutException}
+     * once the timeout passes, and stops waiting as soon as it is completed or cancelled.
+     *
+     * @since 1.0.0
+     *
+     * @param eventType the awaited type
+     * @param priority the priority the event is awaited at
+     * @param filter the filter the event has to pass
+     * @param timeout how long to wait
+     * @return the future of the matching event
+     */
+    @Nonnull
+    public <E extends Event> CompletableFuture<E> next(@Nonnull Class<E> eventType, @Nonnull EventPriority priority, @Nonnull Predicate<E> filter, @Nonnull Duration timeout) {
+        Objects.requireNonNull(eventType, "eventType");
+        Objects.requireNonNull(priority, "priority");
+        Objects.requireNonNull(filter, "filter");
+        Objects.requireNonNull(timeout, "timeout");
+        Preconditions.checkArgument(!timeout.isNegative() && !timeout.isZero(), "invalid timeout: %s", timeout);
+        EventWaiter<E> waiter = new EventWaiter<>(eventType, filter, dispatchers(eventType, priority), System.nanoTime() + timeout.toNanos());
+        for (EventDispatcher dispatcher : waiter.dispatchers()) {
+            dispatcher.await(waiter);
+        }
+        waiter.expiry(expireAt(waiter.deadline(), waiter::timeout));
+        waiter.future().whenComplete((event, failure) -> release(waiter));
+        return waiter.future();
+    }
+
+    private void release(@Nonnull EventWaiter<?> waiter) {
+        for (EventDispatcher dispatcher : waiter.dispatchers()) {
+            dispatcher.release(waiter);
+        }
+        this.expiries.cancel(waiter.expiry());
+    }
+
+    /**
+     * Creates a value that is derived once per event and shared by every observer asking for it.
+     * Memos are meant to be created once and kept, each one takes a slot for the manager's lifetime.
+     *
+     * @since 1.0.0
+     *
+     * @param function the derivation
+     * @return the memo
+     */
+    @Nonnull
+    public <E extends Event, T> EventMemo<E, T> memo(@Nonnull Function<E, T> function) {
+        Objects.requireNonNull(function, "function");
+        ticking();
+        return new EventMemo<>(this.memos, this.memos.allocate(), function);
+    }
+
+    @Nonnull
+    public <A extends Event, B extends Event, K, T> ObserverScope join(@Nonnull Class<A> left, @Nonnull Function<A, K> leftKey, @Nonnull Function<A, T> leftValue,
+                                                                       @Nonnull Class<B> right, @Nonnull Function<B, K> rightKey,
+                                                                       @Nonnull Duration window, @Nonnull BiConsumer<T, B> on) {
+        return join(left, leftKey, leftValue, right, rightKey, window, DEFAULT_JOIN_CAPACITY, on);
+    }
+
+    /**
+     * Calls {@code on} when a {@code right} event follows a {@code left} event of the same
+     * key within the window. Each left event is matched at most once, a newer left event
+     * replaces a buffered one of the same key, and at most {@code capacity} left events
+     * are buffered before the oldest is evicted.
+     * <p>
+     * Only the value extracted from a left event is buffered, as events and the players
+     * they reference are not safe to retain. The value should not reference them either.
+     * Expired values are evicted every tick, even while no event arrives.
+     * <p>
+     * Left events are buffered at {@link EventPriority#MONITOR}, right events are matched
+     * at {@link EventPriority#NORMAL} so {@code on} may still act on them. A join built by a
+     * {@link #define(Consumer) definition} ends when a reload replaces its observers.
+     *
+     * @since 1.0.0
+     *
+     * @param left the type of the buffered events
+     * @param leftKey the key of a buffered event, {@code null} to skip it
+     * @param leftValue the value buffered for a left event, {@code null} to skip it
+     * @param right the type of the matching events
+     * @param rightKey the key of a matching event, {@code null} to skip it
+     * @param window how long a buffered value can be matched
+     * @param capacity the maximum number of buffered values
+     * @param on the consumer of a buffered value and its matching event
+     * @return a scope owning both observers, closing it ends the join
+     */
+    @Nonnull
+    public <A extends Event, B extends Event, K, T> ObserverScope join(@Nonnull Class<A> left, @Nonnull Function<A, K> leftKey, @Nonnull Function<A, T> leftValue,
+                                                                       @Nonnull Class<B> right, @Nonnull Function<B, K> rightKey,
+                                                                       @Nonnull Duration window, @Nonnegative int capacity,
+                                                                       @Nonnull BiConsumer<T, B> on) {
+        Objects.requireNonNull(left, "left");
+        Objects.requireNonNull(leftKey, "leftKey");
+        Objects.requireNonNull(leftValue, "leftValue");
+        Objects.requireNonNull(right, "right");
+        Objects.requireNonNull(rightKey, "rightKey");
+        Objects.requireNonNull(window, "window");
+        Objects.requireNonNull(on, "on");
+        Preconditions.checkArgument(!window.isNegative() && !window.isZero(), "invalid window: %s", window);
+        Preconditions.checkArgument(capacity > 0, "invalid capacity: %s", capacity);
+        EventJoin<A, B, K, T> join = new EventJoin<>(leftKey, leftValue, rightKey, window.toNanos(), capacity, on);
+        ObserverScope scope = new ObserverScope(this, join);
+        observe(left).priority(EventPriority.MONITOR).scope(scope).on(join::left).build();
+        observe(right).priority(EventPriority.NORMAL).scope(scope).on(join::right).build();
+        this.joins.add(join);
+        ticking();
+        return scope;
+    }
+
+    /**
+     * Adds a reloadable definition and builds it. Only the observers of this definition are
+     * built, the ones of earlier definitions keep running with their state. Observers built by
+     * a definition are replaced on every {@link #reload()} by the ones the definition builds again.
+     *
+     * @since 1.0.0
+     *
+     * @param definition builds observers through this manager
+     * @return if the definition could be built, it is not kept otherwise
+     */
+    public boolean define(@Nonnull Consumer<EventManager> definition) {
+        Objects.requireNonNull(definition, "definition");
+        synchronized (this.reloadLock) {
+            Map<EventDispatcher, List<DefaultEventObserver<?>>> staged = build(Collections.singletonList(definition));
+            if (staged == null) {
+                return false;
+            }
+            for (Map.Entry<EventDispatcher, List<DefaultEventObserver<?>>> entry : staged.entrySet()) {
+                for (DefaultEventObserver<?> observer : entry.getValue()) {
+                    entry.getKey().register(observer);
+                }
+            }
+            this.definitions.add(definition);
+            return true;
+        }
+    }
+
+    /**
+     * Builds every definition into a staging set and then publishes the staged observers of
+     * each dispatcher with one pointer swap, without unregistering from Bukkit. Dispatches in
+     * flight finish on the previous set. If a definition throws, nothing is published and the
+     * previous set stays active.
+     * <p>
+     * The swap is atomic per dispatcher only. Dispatchers are swapped one after another, so
+     * while a reload publishes, an event reaching several dispatchers, at other priorities or
+     * through a supertype, may meet the new observers at one and the previous ones at another.
+     *
+     * @since 1.0.0
+     *
+     * @return if every definition could be built
+     */
+    @Override
+    public boolean reload() {
+        synchronized (this.reloadLock) {
+            Map<EventDispatcher, List<DefaultEventObserver<?>>> staged = build(this.definitions);
+            if (staged == null) {
+                return false;
+            }
+            Set<DefaultEventObserver<?>> previous = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (DefaultEventObserver<?> observer : observers()) {
+                if (observer.reloadable) {
+                    previous.add(observer);
+                }
+            }
+            for (EventDispatcher[] byPriority : this.dispatchers.values()) {
+                for (EventDispatcher dispatcher : byPriority) {
+                    if (dispatcher != null) {
+                        dispatcher.swap(staged.getOrDefault(dispatcher, Collections.emptyList()));
+                    }
+                }
+            }
+            for (DefaultEventObserver<?> observer : previous) {
+                observer.retire();
+            }
+            return true;
+        }
+    }
+
+    @Nullable
+    private Map<EventDispatcher, List<DefaultEventObserver<?>>> build(@Nonnull List<Consumer<EventManager>> definitions) {
+        Map<EventDispatcher, List<DefaultEventObserver<?>>> staged = new IdentityHashMap<>();
+        this.staging = staged;
+        this.stagingThread = Thread.currentThread();
+        try {
+            for (Consumer<EventManager> definition : definitions) {
+                definition.accept(this);
+            }
+            return staged;
+        } catch (RuntimeException exception) {
+            this.plugin.getLogger().log(Level.SEVERE, "could not build observers", exception);
+            retire(staged);
+            return null;
+        } finally {
+            this.stagingThread = null;
+            this.staging = null;
+        }
+    }
+
+    private void retire(@Nonnull Map<EventDispatcher, List<DefaultEventObserver<?>>> staged) {
+        for (List<DefaultEventObserver<?>> observers : staged.values()) {
+            for (DefaultEventObserver<?> observer : observers) {
+                observer.retire();
+            }
+        }
+    }
+
+    /**
+     * Builds observers of the manager itself while a definition may be building. They are
+     * registered right away and never replaced by a reload.
+     */
+    private void unstaged(@Nonnull Runnable build) {
+        Thread stagingThread = this.stagingThread;
+        if (stagingThread != Thread.currentThread()) {
+            build.run();
+            return;
+        }
+        this.stagingThread = null;
+        try {
+            build.run();
+        } finally {
+            this.stagingThread = stagingThread;
+        }
+    }
+
+    boolean stage(@Nonnull DefaultEventObserver<?> observer) {
+        if (this.stagingThread != Thread.currentThread()) {
+            return false;
+        }
+        observer.reloadable = true;
+        for (EventDispatcher dispatcher : observer.dispatchers()) {
+            this.staging.computeIfAbsent(dispatcher, key -> new ArrayList<>()).add(observer);
+        }
+        return true;
+    }
+
+    @Nonnull
+    public ObserverScope scope(@Nonnull Object owner) {
+        Objects.requireNonNull(owner, "owner");
+        return this.scopes.computeIfAbsent(owner, key -> new ObserverScope(this, key));
+    }
+
+    /**
+     * A scope closed when the player quits. The player must be online, as a scope
+     * for one who already quit would never be closed.
+     *
+     * @throws IllegalArgumentException if the player is not online
+     */
+    @Nonnull
+    public ObserverScope playerScope(@Nonnull UUID uniqueId) {
+        Objects.requireNonNull(uniqueId, "uniqueId");
+        Preconditions.checkArgument(Bukkit.getPlayer(uniqueId) != null, "player %s is not online", uniqueId);
+        if (this.observingQuits.compareAndSet(false, true)) {
+            // the quit observer serves every player scope, a reload must not retire it
+            unstaged(() -> observe(PlayerQuitEvent.class)
+                    .priority(EventPriority.MONITOR)
+                    .on(event -> {
+                        ObserverScope scope = this.playerScopes.get(event.getPlayer().getUniqueId());
+                        if (scope != null) {
+                            scope.close();
+                        }
+                    })
+                    .build());
+        }
+        ObserverScope scope = this.playerScopes.computeIfAbsent(uniqueId, key -> new ObserverScope(this, key));
+        // the player may have quit before the quit observer could close the scope
+        if (Bukkit.getPlayer(uniqueId) == null) {
+            scope.close();
+            throw new IllegalArgumentException("player " + uniqueId + " is not online");
+        }
+        return scope;
+    }
+
+    void release(@Nonnull ObserverScope scope) {
+        Objects.requireNonNull(scope, "scope");
+        this.scopes.remove(scope.owner(), scope);
+        this.playerScopes.remove(scope.owner(), scope);
+        if (scope.owner() instanceof EventJoin) {
+            EventJoin<?, ?, ?, ?> join = (EventJoin<?, ?, ?, ?>) scope.owner();
+            this.joins.remove(join);
+            join.clear();
+        }
+    }
+
+    @Nonnull
+    public SignalBus signals() {
+        return this.signals;
+    }
+
+    @Nonnull
+    public EventMetrics metrics() {
+        return this.metrics;
+    }
+
+    @Nonnull
+    public SlowHandlerDetector slowHandlers() {
+        return this.slowHandlers;
+    }
+
+    @Nonnull
+    Plugin plugin() {
+        return this.plugin;
+    }
+
+    void failed(@Nonnull Event event, @Nonnull Throwable throwable) {
+        this.plugin.getLogger().log(Level.SEVERE, "could not pass " + event.getClass().getName() + " to an observer", throwable);
+    }
+
+    @Nonnull
+    EventDispatcher[] dispatchers(@Nonnull Class<? extends Event> eventType, @Nonnull EventPriority priority) {
+        Objects.requireNonNull(eventType, "eventType");
+        Objects.requireNonNull(priority, "priority");
+        List<Class<? extends Event>> handlerTypes = this.registrations.computeIfAbsent(eventType, type -> EventTypes.registrations(type, this.plugin.getLogger()));
+        EventDispatcher[] dispatchers = new EventDispatcher[handlerTypes.size()];
+        for (int i = 0; i < dispatchers.length; i++) {
+            dispatchers[i] = dispatcher(handlerTypes.get(i), priority);
+        }
+        return dispatchers;
+    }
+
+    @Nonnull
+    EventDispatcher dispatcher(@Nonnull Class<? extends Event> handlerType, @Nonnull EventPriority priority) {
+        Objects.requireNonNull(handlerType, "handlerType");
+        Objects.requireNonNull(priority, "priority");
+        EventDispatcher[] byPriority = this.dispatchers.computeIfAbsent(handlerType, type -> new EventDispatcher[PRIORITIES]);
+        synchronized (byPriority) {
+            EventDispatcher dispatcher = byPriority[priority.ordinal()];
+            if (dispatcher == null) {
+                dispatcher = new EventDispatcher(this, handlerType, priority);
+                dispatcher.registerListener(this.plugin);
+                byPriority[priority.ordinal()] = dispatcher;
+            }
+            return dispatcher;
+        }
+    }
+
+    @Nonnull
+    ExpiryWheel.Entry expireAt(long deadline, @Nonnull Runnable action) {
+        ExpiryWheel.Entry entry = this.expiries.schedule(deadline, action);
+        ticking();
+        return entry;
+    }
+
+    void cancelExpiry(@Nullable ExpiryWheel.Entry entry) {
+        this.expiries.cancel(entry);
+    }
+
+    private synchronized void ticking() {
+        if (this.ticker != null || this.closed || !this.plugin.isEnabled()) {
+            return;
+        }
+        this.ticker = Bukkit.getScheduler().runTaskTimer(this.plugin, this::tick, 1L, 1L);
+        TickClock.start();
+    }
+
+    private void tick() {
+        long now = TickClock.tick();
+        for (Runnable action : this.expiries.advance(now)) {
+            action.run();
+        }
+        for (EventJoin<?, ?, ?, ?> join : this.joins) {
+            join.evict();
+        }
+        this.memos.clear();
+    }
+
+    void flushLater(@Nonnull EventDispatcher dispatcher) {
+        Objects.requireNonNull(dispatcher, "dispatcher");
+        this.dirty.add(dispatcher);
+        if (!this.plugin.isEnabled()) {
+            flush();
+            return;
+        }
+        if (this.flushScheduled.compareAndSet(false, true)) {
+            Bukkit.getScheduler().runTask(this.plugin, this::flush);
+        }
+    }
+
+    void flush() {
+        this.flushScheduled.set(false);
+        EventDispatcher dispatcher;
+        while ((dispatcher = this.dirty.poll()) != null) {
+            dispatcher.flush();
+        }
+    }
+
+    @Nonnull
+    Set<DefaultEventObserver<?>> observers() {
+        Set<DefaultEventObserver<?>> observers = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (EventDispatcher[] byPriority : this.dispatchers.values()) {
+            for (EventDispatcher dispatcher : byPriority) {
+                if (dispatcher != null) {
+                    dispatcher.collect(observers);
+                }
+            }
+        }
+        return observers;
+    }
+
+    @Override
+    public void close() {
+        for (ObserverScope scope : this.scopes.values()) {
+            scope.close();
+        }
+        for (ObserverScope scope : this.playerScopes.values()) {
+            scope.close();
+        }
+        this.signals.close();
+        flush();
+        synchronized (this) {
+            if (this.ticker != null) {
+                this.ticker.cancel();
+                this.ticker = null;
+                TickClock.stop();
+            }
+        }
+        this.expiries.clear();
+        for (EventJoin<?, ?, ?, ?> join : this.joins) {
+            join.clear();
+        }
+        this.joins.clear();
+        this.memos.clear();
+        for (EventDispatcher[] byPriority : this.dispatchers.values()) {
+            synchronized (byPriority) {
+                for (EventDispatcher dispatcher : byPriority) {
+                    if (dispatcher != null) {
+                        dispatcher.close();
+                    }
+                }
+            }
+        }
+        this.dispatchers.clear();
+        this.closed = true;
+    }
+
+    @Override
+    public boolean closed() {
+        return this.closed;
     }
 }
\ No newline at end of file
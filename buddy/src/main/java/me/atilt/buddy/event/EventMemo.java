@@ -0,0 +1,129 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A value derived from an event that is computed at most once per event instance,
+ * no matter how many observers or priorities ask for it.
+ * <p>
+ * Values live in a slot of the owning {@link EventManager}'s memo context, which is
+ * reset whenever a different event is asked about and cleared at the end of every tick,
+ * so neither the event nor its values outlive the tick. Only main thread calls are
+ * memoized; other threads compute the value every time.
+ *
+ * @since 1.0.0
+ *
+ * @param <E> the event type
+ * @param <T> the value type
+ */
+public final class EventMemo<E extends Event, T> {
+
+    private final Context context;
+    private final int slot;
+    private final Function<E, T> function;
+
+    EventMemo(@Nonnull Context context, @Nonnegative int slot, @Nonnull Function<E, T> function) {
+        Objects.requireNonNull(context, "context");
+        Objects.requireNonNull(function, "function");
+        this.context = context;
+        this.slot = slot;
+        this.function = function;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(@Nonnull E event) {
+        Objects.requireNonNull(event, "event");
+        if (!Bukkit.isPrimaryThread()) {
+            return this.function.apply(event);
+        }
+        Context context = this.context;
+        if (context.event != event) {
+            context.event = event;
+            context.generation++;
+        }
+        context.ensure(this.slot);
+        if (context.stamps[this.slot] == context.generation) {
+            return (T) context.values[this.slot];
+        }
+        T value = this.function.apply(event);
+        // the function may have caused another event, which resets the context
+        if (context.event == event) {
+            context.values[this.slot] = value;
+            context.stamps[this.slot] = context.generation;
+        }
+        return value;
+    }
+
+    /**
+     * The main thread memo slots of an {@link EventManager}. A slot is valid for the current
+     * event while its stamp equals the generation, so resetting only bumps the generation.
+     * Slots are handed out from any thread but the arrays only grow on the main thread.
+     */
+    static final class Context {
+
+        private static final int INITIAL_SLOTS = 8;
+
+        private final AtomicInteger slots = new AtomicInteger();
+        private Object event;
+        private long generation = 1L;
+        private Object[] values = new Object[INITIAL_SLOTS];
+        private long[] stamps = new long[INITIAL_SLOTS];
+
+        int allocate() {
+            return this.slots.getAndIncrement();
+        }
+
+        /**
+         * Drops the current event and its values. Only called on the main thread.
+         */
+        void clear() {
+            if (this.event == null) {
+                return;
+            }
+            this.event = null;
+            this.generation++;
+            Arrays.fill(this.values, null);
+        }
+
+        private void ensure(int slot) {
+            if (slot < this.stamps.length) {
+                return;
+            }
+            int capacity = Math.max(this.stamps.length << 1, slot + 1);
+            this.values = Arrays.copyOf(this.values, capacity);
+            this.stamps = Arrays.copyOf(this.stamps, capacity);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public final class EventMetrics {
+
+    private final EventManager eventManager;
+    private volatile boolean enabled;
+
+    EventMetrics(@Nonnull EventManager eventManager) {
+        Objects.requireNonNull(eventManager, "eventManager");
+        this.eventManager = eventManager;
+    }
+
+    public boolean enabled() {
+        return this.enabled;
+    }
+
+    public void enabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Nonnull
+    public List<ObserverMetrics> snapshot() {
+        List<ObserverMetrics> snapshot = new ArrayList<>();
+        for (DefaultEventObserver<?> observer : this.eventManager.observers()) {
+            ObserverRecorder recorder = observer.recorder();
+            if (recorder != null) {
+                snapshot.add(recorder.snapshot(observer));
+            } else if (observer.on() instanceof AsyncDelivery) {
+                snapshot.add(new ObserverRecorder().snapshot(observer));
+            }
+        }
+        return snapshot;
+    }
+
+    public void reset() {
+        for (DefaultEventObserver<?> observer : this.eventManager.observers()) {
+            ObserverRecorder recorder = observer.recorder();
+            if (recorder != null) {
+                recorder.reset();
+            }
+        }
+    }
+}
\ No newline at end of file
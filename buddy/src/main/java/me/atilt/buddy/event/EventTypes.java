@@ -0,0 +1,163 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import org.bukkit.event.Event;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Resolves the handler lists an observed event type is dispatched through.
+ * <p>
+ * A type that has a handler list, declared by itself or inherited, is registered exactly
+ * like Bukkit registers it. A supertype without one, such as {@code PlayerEvent}, is
+ * resolved to the handler lists of every subtype found under {@code org.bukkit.event} in the
+ * API jar and under the supertype's own package in the jar declaring it. Each package of a jar
+ * is scanned at most once.
+ */
+final class EventTypes {
+
+    private static final String HANDLER_LIST = "getHandlerList";
+    private static final String EVENT_PACKAGE = "org/bukkit/event/";
+    private static final String CLASS_SUFFIX = ".class";
+
+    private static final Map<String, List<Class<? extends Event>>> SCANNED = new ConcurrentHashMap<>();
+
+    @Nullable
+    static Class<? extends Event> registrationClass(@Nonnull Class<?> eventType) {
+        Objects.requireNonNull(eventType, "eventType");
+        for (Class<?> current = eventType; current != null && Event.class.isAssignableFrom(current); current = current.getSuperclass()) {
+            try {
+                current.getDeclaredMethod(HANDLER_LIST);
+                return current.asSubclass(Event.class);
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+        return null;
+    }
+
+    @Nonnull
+    static List<Class<? extends Event>> registrations(@Nonnull Class<? extends Event> eventType, @Nonnull Logger logger) {
+        Objects.requireNonNull(eventType, "eventType");
+        Objects.requireNonNull(logger, "logger");
+        Class<? extends Event> own = registrationClass(eventType);
+        if (own != null) {
+            return Collections.singletonList(own);
+        }
+        Set<Class<? extends Event>> found = new LinkedHashSet<>();
+        collect(eventType, scan(Event.class, EVENT_PACKAGE, logger), found);
+        collect(eventType, scan(eventType, packagePath(eventType), logger), found);
+        if (found.isEmpty()) {
+            throw new IllegalArgumentException("no handler list for " + eventType.getName() + " or any of its known subtypes");
+        }
+        return new ArrayList<>(found);
+    }
+
+    private static void collect(@Nonnull Class<? extends Event> eventType, @Nonnull List<Class<? extends Event>> candidates, @Nonnull Set<Class<? extends Event>> found) {
+        for (Class<? extends Event> candidate : candidates) {
+            if (!eventType.isAssignableFrom(candidate)) {
+                continue;
+            }
+            Class<? extends Event> registration = registrationClass(candidate);
+            if (registration != null) {
+                found.add(registration);
+            }
+        }
+    }
+
+    @Nonnull
+    private static String packagePath(@Nonnull Class<?> type) {
+        String name = type.getName();
+        int end = name.lastIndexOf('.');
+        return end < 0 ? "" : name.substring(0, end + 1).replace('.', '/');
+    }
+
+    @Nonnull
+    private static List<Class<? extends Event>> scan(@Nonnull Class<?> anchor, @Nonnull String prefix, @Nonnull Logger logger) {
+        CodeSource source = anchor.getProtectionDomain().getCodeSource();
+        if (source == null || source.getLocation() == null) {
+            return Collections.emptyList();
+        }
+        URL location = source.getLocation();
+        return SCANNED.computeIfAbsent(location + "!/" + prefix, key -> read(location, prefix, anchor.getClassLoader(), logger));
+    }
+
+    @Nonnull
+    private static List<Class<? extends Event>> read(@Nonnull URL location, @Nonnull String prefix, @Nullable ClassLoader classLoader, @Nonnull Logger logger) {
+        List<Class<? extends Event>> events = new ArrayList<>();
+        File file;
+        try {
+            file = new File(location.toURI());
+        } catch (URISyntaxException | IllegalArgumentException exception) {
+            return events;
+        }
+        if (!file.isFile()) {
+            return events;
+        }
+        try (JarFile jar = new JarFile(file)) {
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (!name.startsWith(prefix) || !name.endsWith(CLASS_SUFFIX)) {
+                    continue;
+                }
+                String className = name.substring(0, name.length() - CLASS_SUFFIX.length()).replace('/', '.');
+                try {
+                    Class<?> type = Class.forName(className, false, classLoader);
+                    if (Event.class.isAssignableFrom(type)) {
+                        events.add(type.asSubclass(Event.class));
+                    }
+                } catch (ClassNotFoundException | LinkageError ignored) {
+                }
+            }
+        } catch (IOException exception) {
+            logger.log(Level.WARNING, "could not scan " + file + " for events", exception);
+        }
+        return events;
+    }
+
+    private EventTypes() {
+        throw new IllegalStateException("This class cannot be instantiated");
+    }
+}
\ No newline at end of file
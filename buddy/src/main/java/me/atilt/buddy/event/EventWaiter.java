@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import org.bukkit.event.Event;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * A one-shot wait for the next event matching a filter, completed by the first
+ * dispatcher that sees one or failed by the manager's expiry wheel once its deadline passes.
+ */
+final class EventWaiter<E extends Event> {
+
+    private final Class<E> eventType;
+    private final Predicate<E> filter;
+    private final EventDispatcher[] dispatchers;
+    private final long deadline;
+    private final CompletableFuture<E> future = new CompletableFuture<>();
+    private volatile ExpiryWheel.Entry expiry;
+
+    EventWaiter(@Nonnull Class<E> eventType, @Nonnull Predicate<E> filter, @Nonnull EventDispatcher[] dispatchers, long deadline) {
+        Objects.requireNonNull(eventType, "eventType");
+        Objects.requireNonNull(filter, "filter");
+        Objects.requireNonNull(dispatchers, "dispatchers");
+        this.eventType = eventType;
+        this.filter = filter;
+        this.dispatchers = dispatchers;
+        this.deadline = deadline;
+    }
+
+    @Nonnull
+    CompletableFuture<E> future() {
+        return this.future;
+    }
+
+    @Nonnull
+    EventDispatcher[] dispatchers() {
+        return this.dispatchers;
+    }
+
+    long deadline() {
+        return this.deadline;
+    }
+
+    @Nullable
+    ExpiryWheel.Entry expiry() {
+        return this.expiry;
+    }
+
+    void expiry(@Nonnull ExpiryWheel.Entry expiry) {
+        this.expiry = expiry;
+    }
+
+    void offer(@Nonnull Event event) {
+        if (this.future.isDone() || !this.eventType.isInstance(event)) {
+            return;
+        }
+        E found = this.eventType.cast(event);
+        boolean matched;
+        try {
+            matched = this.filter.test(found);
+        } catch (Throwable throwable) {
+            this.future.completeExceptionally(throwable);
+            return;
+        }
+        if (matched) {
+            this.future.complete(found);
+        }
+    }
+
+    void timeout() {
+        this.future.completeExceptionally(new TimeoutException("no " + this.eventType.getSimpleName() + " matched in time"));
+    }
+}
\ No newline at end of file
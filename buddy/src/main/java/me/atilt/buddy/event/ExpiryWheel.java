@@ -0,0 +1,207 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A hierarchical timing wheel of {@value #LEVELS} levels with {@value #SLOTS} slots each,
+ * advanced once per server tick.
+ * <p>
+ * A level's slot spans {@code 64^level} ticks, so the wheel covers about nine days of
+ * {@link #TICK_NANOS} ticks. Later deadlines are parked in the last level and placed again
+ * whenever their slot cascades. Scheduling and cancelling are constant time, and advancing
+ * one tick only touches the entries due in it and the slots cascading into it.
+ */
+final class ExpiryWheel {
+
+    static final long TICK_NANOS = 50_000_000L;
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (BITS * LEVELS);
+
+    private final long origin = System.nanoTime();
+    private final Entry[] slots = new Entry[LEVELS * SLOTS];
+    private long current;
+    private int size;
+
+    @Nonnull
+    synchronized Entry schedule(long deadline, @Nonnull Runnable action) {
+        Objects.requireNonNull(action, "action");
+        Entry entry = new Entry(deadline, action);
+        place(entry, this.current + 1);
+        this.size++;
+        return entry;
+    }
+
+    synchronized void cancel(@Nullable Entry entry) {
+        if (entry == null || entry.index < 0) {
+            return;
+        }
+        unlink(entry);
+        this.size--;
+    }
+
+    synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * Advances the wheel to the given time.
+     *
+     * @param now the current time in {@link System#nanoTime()} units
+     * @return the actions of every entry that became due, to be run outside the wheel
+     */
+    @Nonnull
+    synchronized List<Runnable> advance(long now) {
+        long target = Math.max(0L, now - this.origin) / TICK_NANOS;
+        if (this.size == 0) {
+            this.current = Math.max(this.current, target);
+            return Collections.emptyList();
+        }
+        List<Runnable> due = null;
+        while (this.current < target) {
+            long tick = ++this.current;
+            int level = 0;
+            while (level < LEVELS - 1 && (tick & ((1L << (BITS * (level + 1))) - 1)) == 0) {
+                level++;
+            }
+            for (int cascading = level; cascading > 0; cascading--) {
+                cascade(cascading * SLOTS + (int) ((tick >>> (BITS * cascading)) & MASK));
+            }
+            Entry entry = detach((int) (tick & MASK));
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.next = null;
+                if (tickOf(entry.deadline) <= tick) {
+                    this.size--;
+                    if (due == null) {
+                        due = new ArrayList<>();
+                    }
+                    due.add(entry.action);
+                } else {
+                    place(entry, tick + 1);
+                }
+                entry = next;
+            }
+        }
+        return due == null ? Collections.<Runnable>emptyList() : due;
+    }
+
+    synchronized void clear() {
+        for (int i = 0; i < this.slots.length; i++) {
+            Entry entry = detach(i);
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.next = null;
+                entry = next;
+            }
+        }
+        this.size = 0;
+    }
+
+    private long tickOf(long deadline) {
+        long elapsed = deadline - this.origin;
+        return elapsed <= 0 ? 0 : (elapsed + TICK_NANOS - 1) / TICK_NANOS;
+    }
+
+    private void place(@Nonnull Entry entry, long earliest) {
+        long expiry = Math.max(tickOf(entry.deadline), earliest);
+        long delta = expiry - this.current;
+        if (delta >= SPAN) {
+            expiry = this.current + SPAN - 1;
+            delta = SPAN - 1;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        int index = level * SLOTS + (int) ((expiry >>> (BITS * level)) & MASK);
+        Entry head = this.slots[index];
+        entry.index = index;
+        entry.prev = null;
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        this.slots[index] = entry;
+    }
+
+    private void cascade(int index) {
+        Entry entry = detach(index);
+        while (entry != null) {
+            Entry next = entry.next;
+            place(entry, this.current);
+            entry = next;
+        }
+    }
+
+    @Nullable
+    private Entry detach(int index) {
+        Entry head = this.slots[index];
+        this.slots[index] = null;
+        for (Entry entry = head; entry != null; entry = entry.next) {
+            entry.index = -1;
+            entry.prev = null;
+        }
+        return head;
+    }
+
+    private void unlink(@Nonnull Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            this.slots[entry.index] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+        entry.index = -1;
+    }
+
+    static final class Entry {
+
+        private final long deadline;
+        private final Runnable action;
+        private Entry prev;
+        private Entry next;
+        private int index = -1;
+
+        private Entry(long deadline, @Nonnull Runnable action) {
+            this.deadline = deadline;
+            this.action = action;
+        }
+    }
+}
\ No newline at end of file
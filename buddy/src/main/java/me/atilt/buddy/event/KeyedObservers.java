@@ -0,0 +1,363 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import me.atilt.buddy.registry.type.ConcurrentInt2ObjectMap;
+import org.bukkit.block.Block;
+import org.bukkit.event.Event;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * An index of the observers of one bucket that share a key function. Observers only share
+ * an index if they were built with the same function instance, so key functions should be
+ * kept in a constant rather than written as a lambda at each observer.
+ */
+abstract class KeyedObservers<E extends Event> {
+
+    @Nonnull
+    abstract Object function();
+
+    abstract void register(@Nonnull DefaultEventObserver<E> observer);
+
+    abstract void unregister(@Nonnull List<DefaultEventObserver<E>> observers);
+
+    abstract boolean empty();
+
+    abstract void execute(@Nonnull E event, boolean instrumented);
+
+    abstract void collect(@Nonnull Collection<? super DefaultEventObserver<E>> observers);
+
+    static final class ObjectKeyed<E extends Event, K> extends KeyedObservers<E> {
+
+        private final Function<E, K> function;
+        private final Map<K, DefaultEventObserver<E>[]> observers = new ConcurrentHashMap<>();
+
+        ObjectKeyed(@Nonnull Function<E, K> function) {
+            Objects.requireNonNull(function, "function");
+            this.function = function;
+        }
+
+        @Nonnull
+        @Override
+        Object function() {
+            return this.function;
+        }
+
+        @SuppressWarnings("unchecked")
+        private K key(@Nonnull DefaultEventObserver<E> observer) {
+            return ((EventKey.ObjectKey<E, K>) observer.key()).key();
+        }
+
+        @Override
+        void register(@Nonnull DefaultEventObserver<E> observer) {
+            this.observers.compute(key(observer), (key, current) -> EventDispatcher.append(current, observer));
+        }
+
+        @Override
+        void unregister(@Nonnull List<DefaultEventObserver<E>> observers) {
+            for (DefaultEventObserver<E> observer : observers) {
+                this.observers.computeIfPresent(key(observer), (key, current) -> EventDispatcher.remove(current, observer));
+            }
+        }
+
+        @Override
+        boolean empty() {
+            return this.observers.isEmpty();
+        }
+
+        @Override
+        void collect(@Nonnull Collection<? super DefaultEventObserver<E>> observers) {
+            for (DefaultEventObserver<E>[] found : this.observers.values()) {
+                Collections.addAll(observers, found);
+            }
+        }
+
+        @Override
+        void execute(@Nonnull E event, boolean instrumented) {
+            K key = this.function.apply(event);
+            if (key == null) {
+                return;
+            }
+            DefaultEventObserver<E>[] found = this.observers.get(key);
+            if (found == null) {
+                return;
+            }
+            for (DefaultEventObserver<E> observer : found) {
+                observer.dispatch(event, instrumented);
+            }
+        }
+    }
+
+    static final class IntKeyed<E extends Event> extends KeyedObservers<E> {
+
+        private final ToIntFunction<E> function;
+        private final ConcurrentInt2ObjectMap<DefaultEventObserver<E>[]> observers = new ConcurrentInt2ObjectMap<>();
+
+        IntKeyed(@Nonnull ToIntFunction<E> function) {
+            Objects.requireNonNull(function, "function");
+            this.function = function;
+        }
+
+        @Nonnull
+        @Override
+        Object function() {
+            return this.function;
+        }
+
+        private static int key(@Nonnull DefaultEventObserver<?> observer) {
+            return ((EventKey.IntKey<?>) observer.key()).key();
+        }
+
+        // writes are serialized here, lookups read the map without locking
+        @Override
+        synchronized void register(@Nonnull DefaultEventObserver<E> observer) {
+            int key = key(observer);
+            this.observers.put(key, EventDispatcher.append(this.observers.get(key), observer));
+        }
+
+        @Override
+        synchronized void unregister(@Nonnull List<DefaultEventObserver<E>> observers) {
+            for (DefaultEventObserver<E> observer : observers) {
+                int key = key(observer);
+                DefaultEventObserver<E>[] current = this.observers.get(key);
+                if (current == null) {
+                    continue;
+                }
+                DefaultEventObserver<E>[] remaining = EventDispatcher.remove(current, observer);
+                if (remaining == null) {
+                    this.observers.remove(key);
+                } else {
+                    this.observers.put(key, remaining);
+                }
+            }
+        }
+
+        @Override
+        boolean empty() {
+            return this.observers.isEmpty();
+        }
+
+        @Override
+        void collect(@Nonnull Collection<? super DefaultEventObserver<E>> observers) {
+            for (DefaultEventObserver<E>[] found : this.observers.values()) {
+                Collections.addAll(observers, found);
+            }
+        }
+
+        @Override
+        void execute(@Nonnull E event, boolean instrumented) {
+            DefaultEventObserver<E>[] found = this.observers.get(this.function.applyAsInt(event));
+            if (found == null) {
+                return;
+            }
+            for (DefaultEventObserver<E> observer : found) {
+                observer.dispatch(event, instrumented);
+            }
+        }
+    }
+
+    static final class RegionKeyed<E extends Event> extends KeyedObservers<E> {
+
+        /**
+         * The most chunks a region is indexed in. Larger regions are checked with every event
+         * of their world instead, so a huge region never fills the index.
+         */
+        static final int MAX_INDEXED_CHUNKS = 1024;
+
+        private final Function<E, Block> function;
+        private final Map<UUID, Chunks<E>> worlds = new ConcurrentHashMap<>();
+
+        RegionKeyed(@Nonnull Function<E, Block> function) {
+            Objects.requireNonNull(function, "function");
+            this.function = function;
+        }
+
+        @Nonnull
+        @Override
+        Object function() {
+            return this.function;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <E extends Event> EventKey.RegionKey<E> region(@Nonnull DefaultEventObserver<E> observer) {
+            return (EventKey.RegionKey<E>) observer.key();
+        }
+
+        // writes are serialized here and only touch the chunks of the region, lookups never lock
+        @Override
+        synchronized void register(@Nonnull DefaultEventObserver<E> observer) {
+            EventKey.RegionKey<E> region = region(observer);
+            Chunks<E> chunks = this.worlds.computeIfAbsent(region.world(), world -> new Chunks<>());
+            if (region.chunks() > MAX_INDEXED_CHUNKS) {
+                chunks.large = EventDispatcher.append(chunks.large, observer);
+                return;
+            }
+            for (int chunkX = region.minChunkX(); chunkX <= region.maxChunkX(); chunkX++) {
+                for (int chunkZ = region.minChunkZ(); chunkZ <= region.maxChunkZ(); chunkZ++) {
+                    chunks.add(chunkX, chunkZ, observer);
+                }
+            }
+        }
+
+        @Override
+        synchronized void unregister(@Nonnull List<DefaultEventObserver<E>> observers) {
+            for (DefaultEventObserver<E> observer : observers) {
+                EventKey.RegionKey<E> region = region(observer);
+                Chunks<E> chunks = this.worlds.get(region.world());
+                if (chunks == null) {
+                    continue;
+                }
+                if (region.chunks() > MAX_INDEXED_CHUNKS) {
+                    if (chunks.large != null) {
+                        chunks.large = EventDispatcher.remove(chunks.large, observer);
+                    }
+                } else {
+                    for (int chunkX = region.minChunkX(); chunkX <= region.maxChunkX(); chunkX++) {
+                        for (int chunkZ = region.minChunkZ(); chunkZ <= region.maxChunkZ(); chunkZ++) {
+                            chunks.remove(chunkX, chunkZ, observer);
+                        }
+                    }
+                }
+                if (chunks.empty()) {
+                    this.worlds.remove(region.world());
+                }
+            }
+        }
+
+        @Override
+        boolean empty() {
+            return this.worlds.isEmpty();
+        }
+
+        @Override
+        void collect(@Nonnull Collection<? super DefaultEventObserver<E>> observers) {
+            for (Chunks<E> chunks : this.worlds.values()) {
+                chunks.collect(observers);
+            }
+        }
+
+        @Override
+        void execute(@Nonnull E event, boolean instrumented) {
+            Block block = this.function.apply(event);
+            if (block == null) {
+                return;
+            }
+            Chunks<E> chunks = this.worlds.get(block.getWorld().getUID());
+            if (chunks == null) {
+                return;
+            }
+            int x = block.getX();
+            int y = block.getY();
+            int z = block.getZ();
+            execute(chunks.get(x >> 4, z >> 4), event, x, y, z, instrumented);
+            execute(chunks.large, event, x, y, z, instrumented);
+        }
+
+        private static <E extends Event> void execute(DefaultEventObserver<E>[] found, @Nonnull E event, int x, int y, int z, boolean instrumented) {
+            if (found == null) {
+                return;
+            }
+            for (DefaultEventObserver<E> observer : found) {
+                if (region(observer).contains(x, y, z)) {
+                    observer.dispatch(event, instrumented);
+                }
+            }
+        }
+    }
+
+    /**
+     * The indexed regions of one world, by chunk column and then chunk row, and the
+     * regions too large to index.
+     */
+    private static final class Chunks<E extends Event> {
+
+        private final ConcurrentInt2ObjectMap<ConcurrentInt2ObjectMap<DefaultEventObserver<E>[]>> columns = new ConcurrentInt2ObjectMap<>();
+        private volatile DefaultEventObserver<E>[] large;
+
+        private DefaultEventObserver<E>[] get(int chunkX, int chunkZ) {
+            ConcurrentInt2ObjectMap<DefaultEventObserver<E>[]> column = this.columns.get(chunkX);
+            return column == null ? null : column.get(chunkZ);
+        }
+
+        private void add(int chunkX, int chunkZ, @Nonnull DefaultEventObserver<E> observer) {
+            ConcurrentInt2ObjectMap<DefaultEventObserver<E>[]> column = this.columns.get(chunkX);
+            if (column == null) {
+                column = new ConcurrentInt2ObjectMap<>();
+                this.columns.put(chunkX, column);
+            }
+            column.put(chunkZ, EventDispatcher.append(column.get(chunkZ), observer));
+        }
+
+        private void remove(int chunkX, int chunkZ, @Nonnull DefaultEventObserver<E> observer) {
+            ConcurrentInt2ObjectMap<DefaultEventObserver<E>[]> column = this.columns.get(chunkX);
+            if (column == null) {
+                return;
+            }
+            DefaultEventObserver<E>[] found = column.get(chunkZ);
+            if (found == null) {
+                return;
+            }
+            DefaultEventObserver<E>[] remaining = EventDispatcher.remove(found, observer);
+            if (remaining != null) {
+                column.put(chunkZ, remaining);
+                return;
+            }
+            column.remove(chunkZ);
+            if (column.isEmpty()) {
+                this.columns.remove(chunkX);
+            }
+        }
+
+        private boolean empty() {
+            return this.columns.isEmpty() && this.large == null;
+        }
+
+        private void collect(@Nonnull Collection<? super DefaultEventObserver<E>> observers) {
+            // an observer is listed in every chunk of its region
+            Set<DefaultEventObserver<E>> indexed = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (ConcurrentInt2ObjectMap<DefaultEventObserver<E>[]> column : this.columns.values()) {
+                for (DefaultEventObserver<E>[] found : column.values()) {
+                    Collections.addAll(indexed, found);
+                }
+            }
+            observers.addAll(indexed);
+            if (this.large != null) {
+                Collections.addAll(observers, this.large);
+            }
+        }
+    }
+}
\ No newline at end of file
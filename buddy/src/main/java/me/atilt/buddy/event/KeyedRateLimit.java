@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Limits how often events sharing a key are accepted.
+ * <p>
+ * A throttle accepts a key at most once per interval. A debounce accepts a key
+ * only after it has been quiet for the interval, so every event pushes the
+ * next acceptance further out. Events with a {@code null} key are not limited.
+ * <p>
+ * Concurrent limits keep one CAS-updated timestamp per key in a concurrent map instead.
+ * A swept timestamp is retired before it is removed, so a thread still holding it
+ * starts over with the map rather than updating a timestamp nobody will read again.
+ */
+final class KeyedRateLimit<E, K> implements Predicate<E>, ConcurrentStage {
+
+    private static final int SWEEP_INTERVAL = 4096;
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    private final Function<E, K> key;
+    private final long interval;
+    private final boolean debounce;
+
+    private KeyedTimestamps uuids;
+    private KeyedTimestamps objects;
+    private ConcurrentMap<K, AtomicLong> shared;
+    private AtomicInteger operations;
+
+    KeyedRateLimit(@Nonnull Function<E, K> key, @Nonnegative long interval, boolean debounce) {
+        this.key = key;
+        this.interval = interval;
+        this.debounce = debounce;
+    }
+
+    @Override
+    public void concurrent() {
+        this.shared = new ConcurrentHashMap<>();
+        this.operations = new AtomicInteger();
+    }
+
+    @Override
+    public boolean test(E event) {
+        K key = this.key.apply(event);
+        if (key == null) {
+            return true;
+        }
+        long now = System.nanoTime();
+        if (this.shared != null) {
+            return admit(key, now);
+        }
+        if (key instanceof UUID) {
+            if (this.uuids == null) {
+                this.uuids = new KeyedTimestamps.UUIDKeys(this.interval);
+            }
+            return this.uuids.admit(key, now, this.debounce);
+        }
+        if (this.objects == null) {
+            this.objects = new KeyedTimestamps.ObjectKeys(this.interval);
+        }
+        return this.objects.admit(key, now, this.debounce);
+    }
+
+    private boolean admit(@Nonnull K key, long now) {
+        if (this.operations.incrementAndGet() % SWEEP_INTERVAL == 0) {
+            sweep(now);
+        }
+        AtomicLong stamp = null;
+        while (true) {
+            if (stamp == null) {
+                stamp = this.shared.get(key);
+                if (stamp == null) {
+                    stamp = this.shared.putIfAbsent(key, new AtomicLong(now));
+                    if (stamp == null) {
+                        return true;
+                    }
+                }
+            }
+            long last = stamp.get();
+            if (last == RETIRED) {
+                this.shared.remove(key, stamp);
+                stamp = null;
+                continue;
+            }
+            boolean admitted = now - last >= this.interval;
+            // another thread may have stamped a later time than ours
+            if (!admitted && (!this.debounce || now - last <= 0)) {
+                return false;
+            }
+            if (stamp.compareAndSet(last, now)) {
+                return admitted;
+            }
+        }
+    }
+
+    private void sweep(long now) {
+        for (Map.Entry<K, AtomicLong> entry : this.shared.entrySet()) {
+            AtomicLong stamp = entry.getValue();
+            long last = stamp.get();
+            // only a stamp nobody refreshed since the check is retired
+            if (last != RETIRED && now - last >= this.interval && stamp.compareAndSet(last, RETIRED)) {
+                this.shared.remove(entry.getKey(), stamp);
+            }
+        }
+    }
+}
\ No newline at end of file
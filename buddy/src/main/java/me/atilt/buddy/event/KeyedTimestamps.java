@@ -0,0 +1,226 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * An open-addressing table of the last admitted time per key.
+ * <p>
+ * An entry older than the window no longer changes the outcome of
+ * {@link #admit(Object, long, boolean)}, so the table is swept and rebuilt
+ * with only its live entries every {@code capacity} operations and before it grows.
+ * Memory therefore follows the number of recently active keys.
+ */
+abstract class KeyedTimestamps {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private final long window;
+    long[] stamps;
+    int mask;
+    private int size;
+    private int operations;
+
+    KeyedTimestamps(@Nonnegative long window) {
+        this.window = window;
+        allocate(MIN_CAPACITY);
+    }
+
+    void allocate(int capacity) {
+        this.stamps = new long[capacity];
+        Arrays.fill(this.stamps, EMPTY);
+        this.mask = capacity - 1;
+    }
+
+    static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    abstract int slot(@Nonnull Object key);
+
+    abstract void store(int slot, @Nonnull Object key);
+
+    abstract void rehash(int capacity, long now);
+
+    boolean live(long stamp, long now) {
+        return stamp != EMPTY && now - stamp < this.window;
+    }
+
+    /**
+     * Tests whether a key is admitted at the given time.
+     *
+     * @param key the key
+     * @param now the current time in nanoseconds
+     * @param refresh if a rejected key should still have its time updated
+     * @return if no admission for the key happened within the window
+     */
+    boolean admit(@Nonnull Object key, long now, boolean refresh) {
+        if (++this.operations >= this.stamps.length) {
+            this.operations = 0;
+            compact(now);
+        }
+        int slot = slot(key);
+        long last = this.stamps[slot];
+        if (last == EMPTY) {
+            store(slot, key);
+            this.stamps[slot] = now;
+            if (++this.size > (this.stamps.length >> 1) + (this.stamps.length >> 2)) {
+                compact(now);
+            }
+            return true;
+        }
+        boolean admitted = now - last >= this.window;
+        if (admitted || refresh) {
+            this.stamps[slot] = now;
+        }
+        return admitted;
+    }
+
+    private void compact(long now) {
+        int live = 0;
+        for (long stamp : this.stamps) {
+            if (live(stamp, now)) {
+                live++;
+            }
+        }
+        int capacity = MIN_CAPACITY;
+        while (capacity < live * 2 + 2) {
+            capacity <<= 1;
+        }
+        this.size = live;
+        rehash(capacity, now);
+    }
+
+    static final class UUIDKeys extends KeyedTimestamps {
+
+        private long[] most;
+        private long[] least;
+
+        UUIDKeys(@Nonnegative long window) {
+            super(window);
+        }
+
+        @Override
+        void allocate(int capacity) {
+            super.allocate(capacity);
+            this.most = new long[capacity];
+            this.least = new long[capacity];
+        }
+
+        @Override
+        int slot(@Nonnull Object key) {
+            UUID uuid = (UUID) key;
+            long most = uuid.getMostSignificantBits();
+            long least = uuid.getLeastSignificantBits();
+            long hash = most ^ least;
+            int slot = mix((int) (hash ^ (hash >>> 32))) & this.mask;
+            while (this.stamps[slot] != EMPTY && (this.most[slot] != most || this.least[slot] != least)) {
+                slot = (slot + 1) & this.mask;
+            }
+            return slot;
+        }
+
+        @Override
+        void store(int slot, @Nonnull Object key) {
+            UUID uuid = (UUID) key;
+            this.most[slot] = uuid.getMostSignificantBits();
+            this.least[slot] = uuid.getLeastSignificantBits();
+        }
+
+        @Override
+        void rehash(int capacity, long now) {
+            long[] stamps = this.stamps;
+            long[] most = this.most;
+            long[] least = this.least;
+            allocate(capacity);
+            for (int i = 0; i < stamps.length; i++) {
+                if (!live(stamps[i], now)) {
+                    continue;
+                }
+                long hash = most[i] ^ least[i];
+                int slot = mix((int) (hash ^ (hash >>> 32))) & this.mask;
+                while (this.stamps[slot] != EMPTY) {
+                    slot = (slot + 1) & this.mask;
+                }
+                this.most[slot] = most[i];
+                this.least[slot] = least[i];
+                this.stamps[slot] = stamps[i];
+            }
+        }
+    }
+
+    static final class ObjectKeys extends KeyedTimestamps {
+
+        private Object[] keys;
+
+        ObjectKeys(@Nonnegative long window) {
+            super(window);
+        }
+
+        @Override
+        void allocate(int capacity) {
+            super.allocate(capacity);
+            this.keys = new Object[capacity];
+        }
+
+        @Override
+        int slot(@Nonnull Object key) {
+            int slot = mix(key.hashCode()) & this.mask;
+            while (this.stamps[slot] != EMPTY && !key.equals(this.keys[slot])) {
+                slot = (slot + 1) & this.mask;
+            }
+            return slot;
+        }
+
+        @Override
+        void store(int slot, @Nonnull Object key) {
+            this.keys[slot] = key;
+        }
+
+        @Override
+        void rehash(int capacity, long now) {
+            long[] stamps = this.stamps;
+            Object[] keys = this.keys;
+            allocate(capacity);
+            for (int i = 0; i < stamps.length; i++) {
+                if (!live(stamps[i], now)) {
+                    continue;
+                }
+                int slot = mix(keys[i].hashCode()) & this.mask;
+                while (this.stamps[slot] != EMPTY) {
+                    slot = (slot + 1) & this.mask;
+                }
+                this.keys[slot] = keys[i];
+                this.stamps[slot] = stamps[i];
+            }
+        }
+    }
+}
\ No newline at end of file
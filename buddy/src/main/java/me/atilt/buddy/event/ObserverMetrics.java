@@ -0,0 +1,173 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * A point-in-time snapshot of a single observer's dispatch metrics.
+ * <p>
+ * Latencies cover the observer's filter and {@code on} consumer and are bucketed
+ * by powers of two: bucket {@code i} counts invocations that took between
+ * {@code 2^i} and {@code 2^(i + 1)} nanoseconds.
+ *
+ * @since 1.0.0
+ * @version 1.0.0
+ * @author Atilt
+ */
+public final class ObserverMetrics {
+
+    private final Class<? extends Event> eventType;
+    private final EventPriority priority;
+    private final String site;
+    private final long invocations;
+    private final long filtered;
+    private final long expiries;
+    private final long nanos;
+    private final long[] histogram;
+    private final int queued;
+    private final long dropped;
+
+    ObserverMetrics(@Nonnull Class<? extends Event> eventType, @Nonnull EventPriority priority, @Nonnull String site, long invocations, long filtered, long expiries, long nanos, @Nonnull long[] histogram, int queued, long dropped) {
+        Objects.requireNonNull(eventType, "eventType");
+        Objects.requireNonNull(priority, "priority");
+        Objects.requireNonNull(site, "site");
+        Objects.requireNonNull(histogram, "histogram");
+        this.eventType = eventType;
+        this.priority = priority;
+        this.site = site;
+        this.invocations = invocations;
+        this.filtered = filtered;
+        this.expiries = expiries;
+        this.nanos = nanos;
+        this.histogram = histogram;
+        this.queued = queued;
+        this.dropped = dropped;
+    }
+
+    @Nonnull
+    public Class<? extends Event> eventType() {
+        return this.eventType;
+    }
+
+    @Nonnull
+    public EventPriority priority() {
+        return this.priority;
+    }
+
+    /**
+     * Where the observer was built, telling apart the observers of one event and priority.
+     *
+     * @since 1.0.0
+     *
+     * @return the first stack frame outside this library when the observer was built
+     */
+    @Nonnull
+    public String site() {
+        return this.site;
+    }
+
+    public long invocations() {
+        return this.invocations;
+    }
+
+    public long filtered() {
+        return this.filtered;
+    }
+
+    public long expiries() {
+        return this.expiries;
+    }
+
+    public long nanos() {
+        return this.nanos;
+    }
+
+    public double meanNanos() {
+        return this.invocations == 0 ? 0 : (double) this.nanos / this.invocations;
+    }
+
+    /**
+     * The number of values waiting in the observer's async delivery queue.
+     *
+     * @since 1.0.0
+     *
+     * @return the queue depth, or 0 if delivery is synchronous
+     */
+    public int queued() {
+        return this.queued;
+    }
+
+    /**
+     * The number of values the observer's async delivery discarded on overflow.
+     *
+     * @since 1.0.0
+     *
+     * @return the dropped count, or 0 if delivery is synchronous
+     */
+    public long dropped() {
+        return this.dropped;
+    }
+
+    @Nonnull
+    public long[] histogram() {
+        return this.histogram.clone();
+    }
+
+    /**
+     * Approximates a latency percentile from the histogram.
+     *
+     * @since 1.0.0
+     *
+     * @param percentile the percentile, between 0 and 1
+     * @return the upper bound in nanoseconds of the bucket containing the percentile
+     */
+    public long percentile(@Nonnegative double percentile) {
+        if (percentile < 0 || percentile > 1) {
+            throw new IllegalArgumentException("invalid percentile: " + percentile);
+        }
+        long total = 0;
+        for (long count : this.histogram) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int bucket = 0; bucket < this.histogram.length; bucket++) {
+            seen += this.histogram[bucket];
+            if (seen >= target && this.histogram[bucket] != 0) {
+                return bucket == 63 ? Long.MAX_VALUE : (1L << (bucket + 1)) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the invocations of an observer. Asynchronous events record from many threads while
+ * snapshots are taken on another, so every counter is thread-safe. The counters are read one
+ * at a time, a snapshot taken mid-dispatch may be off by the events in flight.
+ */
+final class ObserverRecorder {
+
+    static final int BUCKETS = 64;
+
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder filtered = new LongAdder();
+    private final LongAdder expiries = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    void invoked(@Nonnegative long nanos) {
+        this.invocations.increment();
+        this.nanos.add(nanos);
+        this.histogram.incrementAndGet(bucket(nanos));
+    }
+
+    void filtered() {
+        this.filtered.increment();
+    }
+
+    void expired() {
+        this.expiries.increment();
+    }
+
+    static int bucket(@Nonnegative long nanos) {
+        return nanos <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    @Nonnull
+    ObserverMetrics snapshot(@Nonnull DefaultEventObserver<?> observer) {
+        int queued = 0;
+        long dropped = 0;
+        if (observer.on() instanceof AsyncDelivery) {
+            AsyncDelivery<?, ?> delivery = (AsyncDelivery<?, ?>) observer.on();
+            queued = delivery.queued();
+            dropped = delivery.dropped();
+        }
+        long[] histogram = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = this.histogram.get(i);
+        }
+        return new ObserverMetrics(observer.eventType(), observer.priority(), observer.site(), this.invocations.sum(), this.filtered.sum(), this.expiries.sum(), this.nanos.sum(), histogram, queued, dropped);
+    }
+
+    void reset() {
+        this.invocations.reset();
+        this.filtered.reset();
+        this.expiries.reset();
+        this.nanos.reset();
+        for (int i = 0; i < BUCKETS; i++) {
+            this.histogram.set(i, 0L);
+        }
+    }
+}
\ No newline at end of file
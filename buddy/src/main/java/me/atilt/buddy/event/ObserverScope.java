@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import me.atilt.buddy.closeable.Closeable;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+public final class ObserverScope implements Closeable {
+
+    private final EventManager eventManager;
+    private final Object owner;
+    private final Set<DefaultEventObserver<?>> observers = Collections.newSetFromMap(new IdentityHashMap<>());
+    private boolean closed;
+
+    ObserverScope(@Nonnull EventManager eventManager, @Nonnull Object owner) {
+        Objects.requireNonNull(eventManager, "eventManager");
+        Objects.requireNonNull(owner, "owner");
+        this.eventManager = eventManager;
+        this.owner = owner;
+    }
+
+    @Nonnull
+    public Object owner() {
+        return this.owner;
+    }
+
+    public synchronized int size() {
+        return this.observers.size();
+    }
+
+    synchronized void join(@Nonnull DefaultEventObserver<?> observer) {
+        Objects.requireNonNull(observer, "observer");
+        if (this.closed) {
+            throw new IllegalStateException("scope of " + this.owner + " is closed");
+        }
+        this.observers.add(observer);
+    }
+
+    void leave(@Nonnull DefaultEventObserver<?> observer) {
+        boolean ended;
+        synchronized (this) {
+            this.observers.remove(observer);
+            // a join ends with its observers, which a reload retires without closing the scope
+            ended = !this.closed && this.observers.isEmpty() && this.owner instanceof EventJoin;
+        }
+        if (ended) {
+            close();
+        }
+    }
+
+    @Override
+    public void close() {
+        List<DefaultEventObserver<?>> closing;
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            closing = new ArrayList<>(this.observers);
+            this.observers.clear();
+        }
+        this.eventManager.release(this);
+        for (DefaultEventObserver<?> observer : closing) {
+            observer.close();
+        }
+    }
+
+    @Override
+    public synchronized boolean closed() {
+        return this.closed;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,269 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import me.atilt.buddy.closeable.Closeable;
+import me.atilt.buddy.event.builder.ObservableSignalBuilder;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * A bus for plain object signals that never touch Bukkit's {@code PluginManager}.
+ * <p>
+ * Signals are observed with the same lifecycle and {@code only} model as events and are
+ * routed to every observer of their class or a supertype. {@link #publish(Object)} dispatches
+ * on the calling thread. {@link #publishAsync(Object)} is safe from any thread and hands the
+ * signal to a preallocated ring. The ring is drained in batches on the main thread once per
+ * tick, or on a dedicated {@link #consumer(Executor) consumer} when one is set.
+ *
+ * @since 1.0.0
+ * @version 1.0.0
+ * @author Atilt
+ */
+public final class SignalBus implements Closeable {
+
+    private static final int CAPACITY = 8192;
+    private static final int DRAIN_BATCH = 4096;
+    private static final SignalObserver<?>[] EMPTY = new SignalObserver<?>[0];
+
+    private final Plugin plugin;
+    private final SignalRing ring = new SignalRing(CAPACITY);
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final LongAdder dropped = new LongAdder();
+    private final Set<Class<?>> routed = ConcurrentHashMap.newKeySet();
+    private final ClassValue<Route> routes = new ClassValue<Route>() {
+        @Override
+        protected Route computeValue(Class<?> type) {
+            SignalBus.this.routed.add(type);
+            return route(type);
+        }
+    };
+    private volatile SignalObserver<?>[] observers = EMPTY;
+    private volatile Executor consumer;
+    private volatile boolean closed;
+
+    SignalBus(@Nonnull Plugin plugin) {
+        Objects.requireNonNull(plugin, "plugin");
+        this.plugin = plugin;
+    }
+
+    @Nonnull
+    public <T> ObservableSignalBuilder<T> observe(@Nonnull Class<T> signalType) {
+        Objects.requireNonNull(signalType, "signalType");
+        return SignalObserver.newBuilder(this, signalType);
+    }
+
+    /**
+     * Drains asynchronously published signals on the executor instead of the main thread.
+     * The executor is only ever asked to run one drain at a time.
+     *
+     * @since 1.0.0
+     *
+     * @param consumer the consumer, {@code null} to drain on the main thread
+     * @return the bus
+     */
+    @Nonnull
+    public SignalBus consumer(@Nullable Executor consumer) {
+        this.consumer = consumer;
+        return this;
+    }
+
+    public void publish(@Nonnull Object signal) {
+        Objects.requireNonNull(signal, "signal");
+        dispatch(signal);
+    }
+
+    /**
+     * Publishes a signal from any thread without blocking.
+     *
+     * @since 1.0.0
+     *
+     * @param signal the signal
+     * @return if the signal was queued, {@code false} if the ring was full and it was dropped
+     */
+    public boolean publishAsync(@Nonnull Object signal) {
+        Objects.requireNonNull(signal, "signal");
+        if (this.closed || !this.ring.offer(signal)) {
+            this.dropped.increment();
+            return false;
+        }
+        drainLater();
+        return true;
+    }
+
+    public int pending() {
+        return this.ring.size();
+    }
+
+    public long dropped() {
+        return this.dropped.sum();
+    }
+
+    synchronized void register(@Nonnull SignalObserver<?> observer) {
+        Objects.requireNonNull(observer, "observer");
+        SignalObserver<?>[] current = this.observers;
+        SignalObserver<?>[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = observer;
+        this.observers = next;
+    }
+
+    synchronized void unregister(@Nonnull SignalObserver<?> observer) {
+        SignalObserver<?>[] current = this.observers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] != observer) {
+                continue;
+            }
+            SignalObserver<?>[] next = Arrays.copyOf(current, current.length - 1);
+            System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+            this.observers = next.length == 0 ? EMPTY : next;
+            return;
+        }
+    }
+
+    @Nonnull
+    private Route route(@Nonnull Class<?> type) {
+        SignalObserver<?>[] observers = this.observers;
+        List<SignalObserver<?>> matched = new ArrayList<>(observers.length);
+        for (SignalObserver<?> observer : observers) {
+            if (observer.signalType().isAssignableFrom(type)) {
+                matched.add(observer);
+            }
+        }
+        return new Route(observers, matched.toArray(EMPTY));
+    }
+
+    private void dispatch(@Nonnull Object signal) {
+        Class<?> type = signal.getClass();
+        Route route = this.routes.get(type);
+        if (route.source != this.observers) {
+            this.routes.remove(type);
+            route = this.routes.get(type);
+        }
+        for (SignalObserver<?> observer : route.matched) {
+            try {
+                observer.execute(signal);
+            } catch (Throwable throwable) {
+                this.plugin.getLogger().log(Level.SEVERE, "could not pass " + type.getName() + " to an observer", throwable);
+            }
+        }
+    }
+
+    private void drainLater() {
+        if (!this.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (!scheduleDrain()) {
+                this.draining.set(false);
+            }
+        } catch (RuntimeException exception) {
+            this.draining.set(false);
+            throw exception;
+        }
+    }
+
+    private boolean scheduleDrain() {
+        Executor consumer = this.consumer;
+        if (consumer != null) {
+            try {
+                consumer.execute(this::drain);
+                return true;
+            } catch (RuntimeException exception) {
+                // a consumer rejecting work, usually because it was shut down, is replaced by the main thread
+                this.consumer = null;
+                this.plugin.getLogger().log(Level.WARNING, "signal consumer rejected a drain, draining on the main thread", exception);
+            }
+        }
+        if (!this.plugin.isEnabled()) {
+            return false;
+        }
+        Bukkit.getScheduler().runTask(this.plugin, this::drain);
+        return true;
+    }
+
+    private void drain() {
+        int drained;
+        try {
+            drained = this.ring.drain(DRAIN_BATCH, this::dispatch);
+        } finally {
+            this.draining.set(false);
+        }
+        if (this.closed || this.ring.size() == 0) {
+            return;
+        }
+        if (drained > 0) {
+            // signals published while the batch was draining did not schedule a drain of their own
+            drainLater();
+        } else if (this.plugin.isEnabled()) {
+            // a producer has claimed a slot without publishing it yet, retry next tick rather than spin
+            Bukkit.getScheduler().runTaskLater(this.plugin, this::drainLater, 1L);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        SignalObserver<?>[] observers;
+        synchronized (this) {
+            observers = this.observers;
+        }
+        for (SignalObserver<?> observer : observers) {
+            observer.close();
+        }
+        for (Class<?> type : this.routed) {
+            this.routes.remove(type);
+        }
+        this.routed.clear();
+    }
+
+    @Override
+    public boolean closed() {
+        return this.closed;
+    }
+
+    private static final class Route {
+
+        private final SignalObserver<?>[] source;
+        private final SignalObserver<?>[] matched;
+
+        private Route(@Nonnull SignalObserver<?>[] source, @Nonnull SignalObserver<?>[] matched) {
+            this.source = source;
+            this.matched = matched;
+        }
+    }
+}
\ No newline at end of file
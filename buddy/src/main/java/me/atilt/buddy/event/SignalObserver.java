@@ -0,0 +1,184 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import me.atilt.buddy.event.builder.ObservableSignalBuilder;
+import me.atilt.buddy.event.lifecycle.IndefiniteLifecycle;
+import me.atilt.buddy.event.lifecycle.Lifecycle;
+import me.atilt.buddy.event.lifecycle.stage.ExpirationPolicy;
+import me.atilt.buddy.function.Consumers;
+import me.atilt.buddy.pattern.Builder;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+final class SignalObserver<T> implements ObservableSignal<T> {
+
+    private final SignalBus bus;
+    private final Lifecycle<T> lifecycle;
+    private final Class<T> signalType;
+    private final List<Predicate<T>> only = new ArrayList<>();
+    private final Consumer<T> on;
+    private final EventFilter<T> filter;
+    private final AtomicBoolean unregistered = new AtomicBoolean();
+
+    private SignalObserver(@Nonnull SignalBus bus, @Nonnull DefaultObservableSignalBuilder<T> builder) {
+        Objects.requireNonNull(bus, "bus");
+        Objects.requireNonNull(builder, "builder");
+        this.bus = bus;
+        this.lifecycle = builder.lifecycle;
+        this.signalType = builder.signalType;
+        this.only.addAll(builder.only);
+        this.on = builder.on;
+        this.filter = EventFilter.compile(this.lifecycle, EventFilter.all(this.only));
+    }
+
+    @Nonnull
+    static <T> ObservableSignalBuilder<T> newBuilder(@Nonnull SignalBus bus, @Nonnull Class<T> signalType) {
+        Objects.requireNonNull(bus, "bus");
+        Objects.requireNonNull(signalType, "signalType");
+        return new DefaultObservableSignalBuilder<>(bus, signalType);
+    }
+
+    @SuppressWarnings("unchecked")
+    void execute(@Nonnull Object signal) {
+        // the bus only routes signals of this observer's type here
+        T found = (T) signal;
+        switch (this.filter.test(found)) {
+            case EventFilter.ACCEPT:
+                this.on.accept(found);
+                break;
+            case EventFilter.EXPIRE:
+                close();
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void close() {
+        this.lifecycle.close();
+        if (this.unregistered.compareAndSet(false, true)) {
+            this.bus.unregister(this);
+        }
+    }
+
+    @Override
+    public boolean closed() {
+        return this.lifecycle.closed();
+    }
+
+    @Nonnull
+    @Override
+    public Lifecycle<T> lifecycle() {
+        return this.lifecycle;
+    }
+
+    @Nonnull
+    @Override
+    public Class<T> signalType() {
+        return this.signalType;
+    }
+
+    @Nonnull
+    @Override
+    public List<Predicate<T>> only() {
+        return Collections.unmodifiableList(this.only);
+    }
+
+    @Nonnull
+    @Override
+    public Consumer<T> on() {
+        return this.on;
+    }
+
+    private static final class DefaultObservableSignalBuilder<T> implements ObservableSignalBuilder<T> {
+
+        private final SignalBus bus;
+
+        private Lifecycle<T> lifecycle;
+        private Class<T> signalType;
+        private List<Predicate<T>> only = new ArrayList<>();
+        private Consumer<T> on;
+
+        private DefaultObservableSignalBuilder(@Nonnull SignalBus bus, @Nonnull Class<T> signalType) {
+            this.bus = bus;
+            this.lifecycle = new IndefiniteLifecycle<>(ExpirationPolicy.HARD);
+            this.signalType = signalType;
+            this.on = Consumers.empty();
+        }
+
+        @Nonnull
+        @Override
+        public ObservableSignalBuilder<T> lifecycle(@Nonnull Lifecycle<T> lifecycle) {
+            Objects.requireNonNull(lifecycle, "lifecycle");
+            this.lifecycle = lifecycle;
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public ObservableSignalBuilder<T> only(@Nonnull Predicate<T>... only) {
+            Objects.requireNonNull(only, "only");
+            this.only = Arrays.asList(only);
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public ObservableSignalBuilder<T> on(@Nonnull Consumer<T> on) {
+            Objects.requireNonNull(on, "on");
+            this.on = on;
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public Builder<ObservableSignal<T>> inherit(@Nonnull ObservableSignal<T> type) {
+            Objects.requireNonNull(type, "type");
+            this.lifecycle = type.lifecycle();
+            this.signalType = type.signalType();
+            this.only = type.only();
+            this.on = type.on();
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public ObservableSignal<T> build() {
+            final SignalObserver<T> observer = new SignalObserver<>(this.bus, this);
+            this.bus.register(observer);
+            return observer;
+        }
+    }
+}
\ No newline at end of file
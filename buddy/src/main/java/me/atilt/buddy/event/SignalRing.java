@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A preallocated, bounded ring with many producers and a single consumer.
+ * <p>
+ * Producers claim a sequence with a CAS on the tail and then publish into its slot.
+ * The consumer stops at the first slot that is claimed but not yet published, so
+ * signals are always drained in claim order.
+ */
+final class SignalRing {
+
+    private final AtomicReferenceArray<Object> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    SignalRing(@Nonnegative int capacity) {
+        Preconditions.checkArgument(capacity > 0 && Integer.bitCount(capacity) == 1, "capacity must be a power of two: %s", capacity);
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    boolean offer(@Nonnull Object signal) {
+        long sequence;
+        do {
+            sequence = this.tail.get();
+            if (sequence - this.head >= this.slots.length()) {
+                return false;
+            }
+        } while (!this.tail.compareAndSet(sequence, sequence + 1));
+        this.slots.lazySet((int) sequence & this.mask, signal);
+        return true;
+    }
+
+    /**
+     * Drains up to {@code max} signals. Must only be called by one thread at a time.
+     *
+     * @param max the most signals to drain
+     * @param consumer the signal consumer
+     * @return the number of drained signals
+     */
+    int drain(@Nonnegative int max, @Nonnull Consumer<Object> consumer) {
+        long head = this.head;
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) head & this.mask;
+            Object signal = this.slots.get(slot);
+            if (signal == null) {
+                break;
+            }
+            this.slots.lazySet(slot, null);
+            this.head = ++head;
+            drained++;
+            consumer.accept(signal);
+        }
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0L, this.tail.get() - this.head);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Flags individual {@code on} consumer invocations that take longer than a threshold.
+ * <p>
+ * Hits are written to a fixed-size ring buffer with a single atomic increment, so
+ * the oldest hits are overwritten once it is full. Every observer captures the stack it
+ * was built from and resolves it to a registration site the first time the site is
+ * reported, so observers built before detection was enabled report their site too.
+ *
+ * @since 1.0.0
+ * @version 1.0.0
+ * @author Atilt
+ */
+public final class SlowHandlerDetector {
+
+    static final String UNKNOWN_SITE = "unknown";
+
+    private static final String PACKAGE = SlowHandlerDetector.class.getPackage().getName() + '.';
+
+    private final AtomicReferenceArray<SlowInvocation> buffer;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();
+    private volatile long threshold;
+
+    SlowHandlerDetector(@Nonnegative int capacity) {
+        Preconditions.checkArgument(capacity > 0 && (capacity & (capacity - 1)) == 0, "capacity must be a power of two: %s", capacity);
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public boolean enabled() {
+        return this.threshold > 0;
+    }
+
+    public long threshold() {
+        return this.threshold;
+    }
+
+    /**
+     * Sets the threshold above which invocations are recorded.
+     *
+     * @since 1.0.0
+     *
+     * @param nanos the threshold in nanoseconds, or 0 to disable detection
+     */
+    public void threshold(@Nonnegative long nanos) {
+        Preconditions.checkArgument(nanos >= 0, "invalid threshold: %s", nanos);
+        this.threshold = nanos;
+    }
+
+    public void threshold(@Nonnull Duration threshold) {
+        Objects.requireNonNull(threshold, "threshold");
+        threshold(threshold.toNanos());
+    }
+
+    @Nonnull
+    public List<SlowInvocation> dump() {
+        List<SlowInvocation> dump = new ArrayList<>(this.buffer.length());
+        for (int i = 0; i < this.buffer.length(); i++) {
+            SlowInvocation invocation = this.buffer.get(i);
+            if (invocation != null) {
+                dump.add(invocation);
+            }
+        }
+        dump.sort(Comparator.comparingLong(SlowInvocation::nanos).reversed());
+        return dump;
+    }
+
+    public void clear() {
+        for (int i = 0; i < this.buffer.length(); i++) {
+            this.buffer.set(i, null);
+        }
+    }
+
+    void record(@Nonnull DefaultEventObserver<?> observer, long nanos) {
+        long threshold = this.threshold;
+        if (threshold <= 0 || nanos < threshold) {
+            return;
+        }
+        SlowInvocation invocation = new SlowInvocation(observer.eventType(), observer.site(), nanos, System.currentTimeMillis());
+        this.buffer.set((int) (this.cursor.getAndIncrement() & this.mask), invocation);
+    }
+
+    @Nonnull
+    static String site(@Nonnull Throwable origin) {
+        for (StackTraceElement element : origin.getStackTrace()) {
+            if (!element.getClassName().startsWith(PACKAGE)) {
+                return element.toString();
+            }
+        }
+        return UNKNOWN_SITE;
+    }
+}
\ No newline at end of file
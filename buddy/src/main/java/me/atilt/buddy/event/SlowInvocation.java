@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import org.bukkit.event.Event;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+public final class SlowInvocation {
+
+    private final Class<? extends Event> eventType;
+    private final String site;
+    private final long nanos;
+    private final long timestamp;
+
+    SlowInvocation(@Nonnull Class<? extends Event> eventType, @Nonnull String site, long nanos, long timestamp) {
+        Objects.requireNonNull(eventType, "eventType");
+        Objects.requireNonNull(site, "site");
+        this.eventType = eventType;
+        this.site = site;
+        this.nanos = nanos;
+        this.timestamp = timestamp;
+    }
+
+    @Nonnull
+    public Class<? extends Event> eventType() {
+        return this.eventType;
+    }
+
+    @Nonnull
+    public String site() {
+        return this.site;
+    }
+
+    public long nanos() {
+        return this.nanos;
+    }
+
+    public long timestamp() {
+        return this.timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return this.eventType.getSimpleName() + " took " + this.nanos + "ns in observer built at " + this.site;
+    }
+}
\ No newline at end of file
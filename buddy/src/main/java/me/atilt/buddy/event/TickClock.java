@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link System#nanoTime()} reading cached once per server tick.
+ * <p>
+ * Every open {@link EventManager} of an enabled plugin refreshes the reading at the start
+ * of each tick, so time-based lifecycles can compare against it on every event without a
+ * system call. While no manager is ticking the clock reads the system timer directly.
+ *
+ * @since 1.0.0
+ * @version 1.0.0
+ * @author Atilt
+ */
+public final class TickClock {
+
+    private static final AtomicInteger TICKERS = new AtomicInteger();
+    private static volatile long now = System.nanoTime();
+
+    /**
+     * The current time in {@link System#nanoTime()} units, at most one tick behind.
+     *
+     * @since 1.0.0
+     *
+     * @return the current time in nanoseconds
+     */
+    public static long nanoTime() {
+        return TICKERS.get() > 0 ? now : System.nanoTime();
+    }
+
+    static void start() {
+        now = System.nanoTime();
+        TICKERS.incrementAndGet();
+    }
+
+    static void stop() {
+        TICKERS.decrementAndGet();
+    }
+
+    static long tick() {
+        return now = System.nanoTime();
+    }
+
+    private TickClock() {
+        throw new IllegalStateException("This class cannot be instantiated");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,221 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import me.atilt.buddy.event.window.Aggregation;
+import me.atilt.buddy.event.window.ThresholdListener;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Aggregates a value per key over a window made of a fixed ring of buckets.
+ * <p>
+ * Each bucket covers {@code window / buckets} of time and is cleared when the ring
+ * wraps back onto it, so recording a value never allocates once a key is known.
+ * Keys whose whole window has expired are swept periodically. Concurrent aggregates
+ * keep their windows in a concurrent map and lock each window only while recording. A swept
+ * window is retired under its lock before it is removed, so a thread still holding it
+ * records into a fresh window instead.
+ */
+final class WindowedAggregate<E, K> implements Consumer<E>, ConcurrentStage {
+
+    private static final int SWEEP_INTERVAL = 1024;
+
+    private final Function<E, K> key;
+    private final ToLongFunction<E> value;
+    private final Aggregation aggregation;
+    private final long width;
+    private final int buckets;
+    private final long threshold;
+    private final ThresholdListener<E> on;
+    private Map<K, Window> windows = new HashMap<>();
+    private int operations;
+    private AtomicInteger shared;
+
+    WindowedAggregate(@Nonnull Function<E, K> key, @Nullable ToLongFunction<E> value, @Nonnull Aggregation aggregation,
+                      @Nonnegative long window, @Nonnegative int buckets, long threshold, @Nonnull ThresholdListener<E> on) {
+        this.key = key;
+        this.value = value;
+        this.aggregation = aggregation;
+        this.width = Math.max(1L, window / buckets);
+        this.buckets = buckets;
+        this.threshold = threshold;
+        this.on = on;
+    }
+
+    @Override
+    public void concurrent() {
+        this.windows = new ConcurrentHashMap<>();
+        this.shared = new AtomicInteger();
+    }
+
+    @Override
+    public void accept(E event) {
+        K key = this.key.apply(event);
+        if (key == null) {
+            return;
+        }
+        long epoch = Math.floorDiv(System.nanoTime(), this.width);
+        long sample = this.value == null ? 0L : this.value.applyAsLong(event);
+        if (this.shared != null) {
+            acceptShared(event, key, epoch, sample);
+            return;
+        }
+        if (++this.operations >= SWEEP_INTERVAL) {
+            this.operations = 0;
+            sweep(epoch);
+        }
+        Window window = this.windows.get(key);
+        if (window == null) {
+            window = new Window(this.buckets, this.aggregation.identity(), epoch);
+            this.windows.put(key, window);
+        }
+        long total = record(window, epoch, sample);
+        if (cross(window, total)) {
+            this.on.crossed(event, total);
+        }
+    }
+
+    private void acceptShared(E event, @Nonnull K key, long epoch, long sample) {
+        if (this.shared.incrementAndGet() % SWEEP_INTERVAL == 0) {
+            sweep(epoch);
+        }
+        long total;
+        boolean crossed;
+        while (true) {
+            Window window = this.windows.get(key);
+            if (window == null) {
+                Window created = new Window(this.buckets, this.aggregation.identity(), epoch);
+                window = this.windows.putIfAbsent(key, created);
+                if (window == null) {
+                    window = created;
+                }
+            }
+            synchronized (window) {
+                if (!window.retired) {
+                    total = record(window, epoch, sample);
+                    crossed = cross(window, total);
+                    break;
+                }
+            }
+            this.windows.remove(key, window);
+        }
+        if (crossed) {
+            this.on.crossed(event, total);
+        }
+    }
+
+    private long record(@Nonnull Window window, long epoch, long sample) {
+        window.advance(epoch, this.aggregation.identity());
+        long[] values = window.values;
+        int slot = (int) Math.floorMod(epoch, (long) this.buckets);
+        values[slot] = this.aggregation.accumulate(values[slot], sample);
+
+        long total = this.aggregation.identity();
+        for (long value : values) {
+            total = this.aggregation.merge(total, value);
+        }
+        return total;
+    }
+
+    private boolean cross(@Nonnull Window window, long total) {
+        boolean reached = this.aggregation == Aggregation.MIN ? total <= this.threshold : total >= this.threshold;
+        if (!reached) {
+            window.armed = true;
+            return false;
+        }
+        if (!window.armed) {
+            return false;
+        }
+        window.armed = false;
+        return true;
+    }
+
+    private void sweep(long epoch) {
+        Iterator<Map.Entry<K, Window>> iterator = this.windows.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Window> entry = iterator.next();
+            if (!entry.getValue().retire(epoch)) {
+                continue;
+            }
+            if (this.shared == null) {
+                iterator.remove();
+            } else {
+                // a fresh window may already have replaced the retired one
+                this.windows.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private static final class Window {
+
+        private final long[] values;
+        private long head;
+        private boolean armed = true;
+        private boolean retired;
+
+        private Window(int buckets, long identity, long epoch) {
+            this.values = new long[buckets];
+            Arrays.fill(this.values, identity);
+            this.head = epoch;
+        }
+
+        private boolean retire(long epoch) {
+            // a concurrent window may be recording while it is swept
+            synchronized (this) {
+                if (epoch - this.head >= this.values.length) {
+                    this.retired = true;
+                }
+                return this.retired;
+            }
+        }
+
+        private void advance(long epoch, long identity) {
+            long elapsed = epoch - this.head;
+            if (elapsed <= 0) {
+                return;
+            }
+            if (elapsed >= this.values.length) {
+                Arrays.fill(this.values, identity);
+            } else {
+                for (long next = this.head + 1; next <= epoch; next++) {
+                    this.values[(int) Math.floorMod(next, (long) this.values.length)] = identity;
+                }
+            }
+            this.head = epoch;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event.builder;
+
+import me.atilt.buddy.event.delivery.OverflowPolicy;
+import org.bukkit.event.Event;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.function.Consumer;
+
+public interface AsyncEventBuilder<E extends Event, T> {
+
+    @Nonnull
+    AsyncEventBuilder<E, T> capacity(@Nonnegative int capacity);
+
+    /**
+     * Sets what happens to a value when the queue is full, {@link OverflowPolicy#DROP_OLDEST} by default.
+     * {@link OverflowPolicy#BLOCK} parks the thread that fired the event and is rejected when the
+     * observer is built unless it is {@link ObservableEventBuilder#concurrent() concurrent}.
+     *
+     * @since 1.0.0
+     *
+     * @param overflow the overflow policy
+     * @return the builder
+     */
+    @Nonnull
+    AsyncEventBuilder<E, T> overflow(@Nonnull OverflowPolicy overflow);
+
+    @Nonnull
+    ObservableEventBuilder<E> on(@Nonnull Consumer<T> on);
+}
\ No newline at end of file
@@ -25,20 +25,53 @@
 package me.atilt.buddy.event.builder;
 
 import me.atilt.buddy.event.ObservableEvent;
+import me.atilt.buddy.event.ObserverScope;
 import me.atilt.buddy.event.lifecycle.Lifecycle;
 import me.atilt.buddy.pattern.Builder;
+import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
 public interface ObservableEventBuilder<E extends Event> extends Builder<ObservableEvent<E>> {
 
+    /**
+     * Adopts the attributes of an observer. The lifecycle is the observer's own, so both end
+     * together unless another lifecycle is set afterwards, while throttles, debounces, windows,
+     * batches and asynchronous deliveries start with state of their own.
+     *
+     * @since 1.0.0
+     *
+     * @param type the observer to adopt attributes from
+     * @return the builder
+     */
+    @Nonnull
+    @Override
+    ObservableEventBuilder<E> inherit(@Nonnull ObservableEvent<E> type);
+
     @Nonnull
     ObservableEventBuilder<E> lifecycle(@Nonnull Lifecycle<E> lifecycle);
 
+    /**
+     * Sets the priority the observer runs at, {@link EventPriority#NORMAL} by default. Observers
+     * of the same priority are not guaranteed to run in the order they were built, see
+     * {@link me.atilt.buddy.event.EventManager#observe(Class)}.
+     *
+     * @since 1.0.0
+     *
+     * @param priority the priority
+     * @return the builder
+     */
     @Nonnull
     ObservableEventBuilder<E> priority(@Nonnull EventPriority priority);
 
@@ -47,4 +80,174 @@ public interface ObservableEventBuilder<E extends Event> extends Builder<Observa
 
     @Nonnull
     ObservableEventBuilder<E> on(@Nonnull Consumer<E> on);
+
+    @Nonnull
+    <T> AsyncEventBuilder<E, T> async(@Nonnull Executor executor, @Nonnull Function<E, T> snapshot);
+
+    @Nonnull
+    ObservableEventBuilder<E> batch(@Nonnegative int ticks, @Nonnegative int maxSize, @Nonnull Consumer<List<E>> on);
+
+    /**
+     * Collects extracted values and delivers them in one call once {@code ticks} have passed
+     * since the first value of the window, or as soon as {@code maxSize} values are buffered.
+     * The delivered list is a reused, read-only buffer and is only valid for the duration of the call.
+     * <p>
+     * A batch delivered when its window ends runs on the server main thread. A full batch runs on
+     * the thread that fired the event filling it, and the last batch of a closing observer on the
+     * thread closing it. A {@link #concurrent() concurrent} observer delivers outside its lock, so
+     * batches of different threads may be delivered at the same time.
+     *
+     * @since 1.0.0
+     *
+     * @param extractor the value extracted from each passing event
+     * @param ticks the window length in server ticks
+     * @param maxSize the buffer size that forces an early delivery
+     * @param on the batch consumer
+     * @return the builder
+     */
+    @Nonnull
+    <T> ObservableEventBuilder<E> batch(@Nonnull Function<E, T> extractor, @Nonnegative int ticks, @Nonnegative int maxSize, @Nonnull Consumer<List<T>> on);
+
+    /**
+     * Accepts events sharing a key at most once per interval. Events are limited
+     * after every {@link #only(Predicate[])} filter has passed.
+     *
+     * @since 1.0.0
+     *
+     * @param key the key an event is limited by, {@code null} to not limit it
+     * @param interval the minimum time between accepted events of a key
+     * @return the builder
+     */
+    @Nonnull
+    <K> ObservableEventBuilder<E> throttle(@Nonnull Function<E, K> key, @Nonnull Duration interval);
+
+    /**
+     * Accepts an event only once its key has been quiet for the interval. Every
+     * event of the key, accepted or not, restarts the quiet period.
+     *
+     * @since 1.0.0
+     *
+     * @param key the key an event is limited by, {@code null} to not limit it
+     * @param interval the quiet period required before an event is accepted
+     * @return the builder
+     */
+    @Nonnull
+    <K> ObservableEventBuilder<E> debounce(@Nonnull Function<E, K> key, @Nonnull Duration interval);
+
+    /**
+     * Aggregates passing events per key over a sliding window and notifies a
+     * listener when the aggregate crosses a threshold. Counts events unless
+     * another aggregation is chosen.
+     *
+     * @since 1.0.0
+     *
+     * @param key the key events are aggregated by, {@code null} to skip an event
+     * @param window the window length
+     * @return the window builder
+     */
+    @Nonnull
+    <K> WindowEventBuilder<E> window(@Nonnull Function<E, K> key, @Nonnull Duration window);
+
+    /**
+     * Lets the {@link #only(Predicate[])} filters reorder themselves at runtime, so the filters
+     * that reject most often for the least time run first. Any filter may therefore run before
+     * any other, or not at all: the filters must be independent of each other and free of side
+     * effects. A chain where one filter guards another, such as an {@code instanceof} or null
+     * check followed by a filter relying on it, must be combined into a single filter instead.
+     *
+     * @since 1.0.0
+     *
+     * @return the builder
+     */
+    @Nonnull
+    ObservableEventBuilder<E> adaptive();
+
+    /**
+     * Makes the observer's stateful stages, {@link #throttle(Function, Duration) throttles},
+     * {@link #debounce(Function, Duration) debounces}, {@link #window(Function, Duration) windows}
+     * and {@link #batch(int, int, Consumer) batches}, safe to run from many threads at once,
+     * as needed for asynchronous events.
+     *
+     * @since 1.0.0
+     *
+     * @return the builder
+     */
+    @Nonnull
+    ObservableEventBuilder<E> concurrent();
+
+    @Nonnull
+    ObservableEventBuilder<E> scope(@Nonnull ObserverScope scope);
+
+    /**
+     * Only passes events whose key equals {@code key}. Observers of one event type built with
+     * the same function instance share an index, so an event is only handed to the observers
+     * of its key. The function should therefore be a shared constant: a lambda written at each
+     * observer, and any capturing lambda, is a distinct instance with an index of its own.
+     *
+     * @since 1.0.0
+     *
+     * @param function the key of an event, {@code null} to skip it
+     * @param key the observed key
+     * @return the builder
+     * @throws IllegalStateException if the builder is already keyed by a region
+     */
+    @Nonnull
+    <K> ObservableEventBuilder<E> keyedBy(@Nonnull Function<E, K> function, @Nonnull K key);
+
+    /**
+     * Only passes events whose key equals {@code key}, see {@link #keyedBy(Function, Object)}.
+     * The function should likewise be a shared constant.
+     *
+     * @since 1.0.0
+     *
+     * @param function the key of an event
+     * @param key the observed key
+     * @return the builder
+     * @throws IllegalStateException if the builder is already keyed by a region
+     */
+    @Nonnull
+    ObservableEventBuilder<E> keyedBy(@Nonnull ToIntFunction<E> function, int key);
+
+    /**
+     * Only passes events at a block position within the region, taken from block events and
+     * interactions. Regions spanning more than 1024 chunks are not indexed and are checked
+     * with every event of their world, see {@link #within(Function, World, int, int, int, int, int, int)}.
+     *
+     * @since 1.0.0
+     *
+     * @param world the world of the region
+     * @param minX the minimum x coordinate
+     * @param minY the minimum y coordinate
+     * @param minZ the minimum z coordinate
+     * @param maxX the maximum x coordinate
+     * @param maxY the maximum y coordinate
+     * @param maxZ the maximum z coordinate
+     * @return the builder
+     * @throws IllegalStateException if the builder is already {@link #keyedBy(Function, Object) keyed}
+     */
+    @Nonnull
+    ObservableEventBuilder<E> within(@Nonnull World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ);
+
+    /**
+     * Only passes events whose position lies within the region. Regions are indexed by chunk,
+     * so an event is only checked against the regions of its chunk. Regions spanning more than
+     * 1024 chunks are not indexed: they are kept in a per-world list and checked against every
+     * event of their world, so their cost grows with the number of such regions.
+     * An observer has a single key, so a region cannot be combined with {@link #keyedBy(Function, Object)}.
+     *
+     * @since 1.0.0
+     *
+     * @param position the block of an event, {@code null} to skip it
+     * @param world the world of the region
+     * @param minX the minimum x coordinate
+     * @param minY the minimum y coordinate
+     * @param minZ the minimum z coordinate
+     * @param maxX the maximum x coordinate
+     * @param maxY the maximum y coordinate
+     * @param maxZ the maximum z coordinate
+     * @return the builder
+     * @throws IllegalStateException if the builder is already {@link #keyedBy(Function, Object) keyed}
+     */
+    @Nonnull
+    ObservableEventBuilder<E> within(@Nonnull Function<E, Block> position, @Nonnull World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ);
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event.builder;
+
+import me.atilt.buddy.event.window.ThresholdListener;
+import org.bukkit.event.Event;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.function.ToLongFunction;
+
+public interface WindowEventBuilder<E extends Event> {
+
+    /**
+     * Splits the window into buckets that expire one at a time. A single bucket
+     * makes the window tumbling, more buckets make it slide more smoothly.
+     *
+     * @since 1.0.0
+     *
+     * @param buckets the bucket count
+     * @return the builder
+     */
+    @Nonnull
+    WindowEventBuilder<E> buckets(@Nonnegative int buckets);
+
+    @Nonnull
+    WindowEventBuilder<E> tumbling();
+
+    @Nonnull
+    WindowEventBuilder<E> count();
+
+    @Nonnull
+    WindowEventBuilder<E> sum(@Nonnull ToLongFunction<E> value);
+
+    @Nonnull
+    WindowEventBuilder<E> min(@Nonnull ToLongFunction<E> value);
+
+    @Nonnull
+    WindowEventBuilder<E> max(@Nonnull ToLongFunction<E> value);
+
+    /**
+     * Notifies the listener when a key's aggregate reaches the threshold, or for
+     * {@link #min(ToLongFunction)} when it falls to the threshold.
+     *
+     * @since 1.0.0
+     *
+     * @param threshold the threshold
+     * @param on the listener
+     * @return the parent builder
+     */
+    @Nonnull
+    ObservableEventBuilder<E> threshold(long threshold, @Nonnull ThresholdListener<E> on);
+}
\ No newline at end of file
@@ -0,0 +1,53 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event.delivery;
+
+/**
+ * What an asynchronous delivery does with a value when its queue is full.
+ *
+ * @since 1.0.0
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Discards the oldest queued value to make room.
+     */
+    DROP_OLDEST,
+    /**
+     * Discards the value being published.
+     */
+    DROP_NEWEST,
+    /**
+     * Parks the publishing thread until the queue has room. The publishing thread is the one
+     * that fired the event, which for a synchronous event is the server main thread, so this
+     * policy is only accepted for {@link me.atilt.buddy.event.builder.ObservableEventBuilder#concurrent() concurrent}
+     * observers of asynchronous events.
+     */
+    BLOCK,
+    /**
+     * Runs the consumer on the publishing thread.
+     */
+    CALLER_RUNS;
+}
\ No newline at end of file
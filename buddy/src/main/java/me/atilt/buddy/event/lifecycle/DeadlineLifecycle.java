@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event.lifecycle;
+
+import com.google.common.base.Preconditions;
+import me.atilt.buddy.event.TickClock;
+import me.atilt.buddy.event.lifecycle.stage.ExpirationPolicy;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Expires once a fixed deadline, taken from the {@link TickClock} when the lifecycle is
+ * created, has passed. Testing it compares two longs.
+ * <p>
+ * An observer built with this lifecycle, directly or through a composite exposing it as
+ * its {@link Lifecycles#deadline(Lifecycle) deadline}, is also closed by its {@code EventManager}
+ * at the deadline, even if no event arrives to test it.
+ */
+public final class DeadlineLifecycle<E> implements Lifecycle<E> {
+
+    private static final long TICK_MILLIS = 50L;
+
+    private final ExpirationPolicy expirationPolicy;
+    private final long deadline;
+    private volatile boolean closed;
+
+    public DeadlineLifecycle(@Nonnull ExpirationPolicy expirationPolicy, @Nonnull Duration duration) {
+        Objects.requireNonNull(expirationPolicy, "terminationStage");
+        Objects.requireNonNull(duration, "duration");
+        Preconditions.checkArgument(!duration.isNegative(), "invalid duration: %s", duration);
+        this.expirationPolicy = expirationPolicy;
+        this.deadline = TickClock.nanoTime() + duration.toNanos();
+    }
+
+    @Nonnull
+    public static <E> DeadlineLifecycle<E> ticks(@Nonnull ExpirationPolicy expirationPolicy, @Nonnegative long ticks) {
+        return new DeadlineLifecycle<>(expirationPolicy, Duration.ofMillis(ticks * TICK_MILLIS));
+    }
+
+    @Nonnull
+    @Override
+    public ExpirationPolicy expirationPolicy() {
+        return this.expirationPolicy;
+    }
+
+    /**
+     * The deadline in {@link System#nanoTime()} units.
+     *
+     * @since 1.0.0
+     *
+     * @return the deadline
+     */
+    public long deadline() {
+        return this.deadline;
+    }
+
+    @Override
+    public boolean test(E event) {
+        return TickClock.nanoTime() - this.deadline >= 0;
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+    }
+
+    @Override
+    public boolean closed() {
+        return this.closed;
+    }
+}
\ No newline at end of file
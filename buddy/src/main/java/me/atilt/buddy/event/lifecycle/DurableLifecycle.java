@@ -24,21 +24,23 @@
 
 package me.atilt.buddy.event.lifecycle;
 
+import me.atilt.buddy.event.TickClock;
 import me.atilt.buddy.event.lifecycle.stage.ExpirationPolicy;
 import me.atilt.buddy.supplier.Lazy;
-import org.bukkit.event.Event;
 
 import javax.annotation.Nonnull;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Objects;
 
-public final class DurableLifecycle<E extends Event> implements Lifecycle<E> {
+public final class DurableLifecycle<E> implements Lifecycle<E> {
 
     private final ExpirationPolicy expirationPolicy;
     private final Lazy<Instant> lazy;
     private final Duration duration;
-    private boolean closed;
+    private volatile long deadline;
+    private volatile boolean started;
+    private volatile boolean closed;
 
     public DurableLifecycle(@Nonnull ExpirationPolicy expirationPolicy, @Nonnull Lazy<Instant> lazy, @Nonnull Duration duration) {
         Objects.requireNonNull(expirationPolicy, "terminationStage");
@@ -56,7 +58,13 @@ public final class DurableLifecycle<E extends Event> implements Lifecycle<E> {
 
     @Override
     public boolean test(E event) {
-        return Instant.now().isAfter(this.lazy.get().plus(this.duration));
+        if (!this.started) {
+            // resolved once against the wall clock, then compared with the cached tick clock
+            Duration remaining = Duration.between(Instant.now(), this.lazy.get().plus(this.duration));
+            this.deadline = TickClock.nanoTime() + remaining.toNanos();
+            this.started = true;
+        }
+        return TickClock.nanoTime() - this.deadline > 0;
     }
 
     @Override
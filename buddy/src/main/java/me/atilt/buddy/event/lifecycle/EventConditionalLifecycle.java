@@ -25,17 +25,16 @@
 package me.atilt.buddy.event.lifecycle;
 
 import me.atilt.buddy.event.lifecycle.stage.ExpirationPolicy;
-import org.bukkit.event.Event;
 
 import javax.annotation.Nonnull;
 import java.util.Objects;
 import java.util.function.Predicate;
 
-public final class EventConditionalLifecycle<E extends Event> implements Lifecycle<E> {
+public final class EventConditionalLifecycle<E> implements Lifecycle<E> {
 
     private final ExpirationPolicy expirationPolicy;
     private final Predicate<E> condition;
-    private boolean closed;
+    private volatile boolean closed;
 
     public EventConditionalLifecycle(@Nonnull ExpirationPolicy expirationPolicy, @Nonnull Predicate<E> condition) {
         Objects.requireNonNull(expirationPolicy, "terminationStage");
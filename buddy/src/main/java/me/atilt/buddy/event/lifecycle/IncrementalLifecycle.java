@@ -25,25 +25,23 @@
 package me.atilt.buddy.event.lifecycle;
 
 import me.atilt.buddy.event.lifecycle.stage.ExpirationPolicy;
-import org.bukkit.event.Event;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicInteger;
 
-public final class IncrementalLifecycle<E extends Event> implements Lifecycle<E> {
+public final class IncrementalLifecycle<E> implements Lifecycle<E> {
 
     private final ExpirationPolicy expirationPolicy;
-    private boolean closed;
+    private volatile boolean closed;
 
-    private final int maxIncrement;
-    private final AtomicInteger count = new AtomicInteger(0);
+    private final StripedPermits permits;
 
     public IncrementalLifecycle(@Nonnull ExpirationPolicy expirationPolicy, @Nonnegative int maxIncrement) {
         Objects.requireNonNull(expirationPolicy, "terminationStage");
         this.expirationPolicy = expirationPolicy;
-        this.maxIncrement = maxIncrement;
+        // every test before the one reaching maxIncrement passes
+        this.permits = new StripedPermits(Math.max(0, maxIncrement - 1));
     }
 
     @Nonnull
@@ -59,8 +57,7 @@ public final class IncrementalLifecycle<E extends Event> implements Lifecycle<E>
 
     @Override
     public boolean test(E event) {
-        int current = this.count.incrementAndGet();
-        return current >= this.maxIncrement;
+        return !this.permits.acquire();
     }
 
     @Override
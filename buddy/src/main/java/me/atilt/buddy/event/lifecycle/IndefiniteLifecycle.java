@@ -25,15 +25,14 @@
 package me.atilt.buddy.event.lifecycle;
 
 import me.atilt.buddy.event.lifecycle.stage.ExpirationPolicy;
-import org.bukkit.event.Event;
 
 import javax.annotation.Nonnull;
 import java.util.Objects;
 
-public final class IndefiniteLifecycle<E extends Event> implements Lifecycle<E> {
+public final class IndefiniteLifecycle<E> implements Lifecycle<E> {
 
     private final ExpirationPolicy expirationPolicy;
-    private boolean closed;
+    private volatile boolean closed;
 
     public IndefiniteLifecycle(@Nonnull ExpirationPolicy expirationPolicy) {
         Objects.requireNonNull(expirationPolicy, "birthStage");
@@ -26,12 +26,11 @@ package me.atilt.buddy.event.lifecycle;
 
 import me.atilt.buddy.closeable.Closeable;
 import me.atilt.buddy.event.lifecycle.stage.ExpirationPolicy;
-import org.bukkit.event.Event;
 
 import javax.annotation.Nonnull;
 import java.util.function.Predicate;
 
-public interface Lifecycle<E extends Event> extends Predicate<E>, Closeable {
+public interface Lifecycle<E> extends Predicate<E>, Closeable {
 
     @Nonnull
     ExpirationPolicy expirationPolicy();
@@ -0,0 +1,291 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event.lifecycle;
+
+import com.google.common.base.Preconditions;
+import me.atilt.buddy.event.lifecycle.stage.ExpirationPolicy;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.OptionalLong;
+
+/**
+ * Combinators for {@link Lifecycle}s.
+ * <p>
+ * Composite lifecycles test stateful components, counters and composites containing one, with
+ * every event so that they count the same events regardless of the other components. The
+ * remaining components are short-circuited and tested cheapest first: time based lifecycles
+ * compare against the cached tick clock, supplied conditions call out, and event conditions
+ * inspect the event.
+ *
+ * @since 1.0.0
+ * @version 1.0.0
+ * @author Atilt
+ */
+public final class Lifecycles {
+
+    private static final int CLOCK = 0;
+    private static final int COUNTER = 1;
+    private static final int SUPPLIED = 2;
+    private static final int CONDITIONAL = 3;
+
+    /**
+     * A lifecycle that expires as soon as any of its components would.
+     *
+     * @since 1.0.0
+     *
+     * @param expirationPolicy the policy of the composite
+     * @param lifecycles the components
+     * @return the composite lifecycle
+     */
+    @Nonnull
+    @SafeVarargs
+    public static <E> Lifecycle<E> anyOf(@Nonnull ExpirationPolicy expirationPolicy, @Nonnull Lifecycle<E>... lifecycles) {
+        return new AnyOf<>(expirationPolicy, ordered(lifecycles));
+    }
+
+    /**
+     * A lifecycle that expires once all of its components would.
+     *
+     * @since 1.0.0
+     *
+     * @param expirationPolicy the policy of the composite
+     * @param lifecycles the components
+     * @return the composite lifecycle
+     */
+    @Nonnull
+    @SafeVarargs
+    public static <E> Lifecycle<E> allOf(@Nonnull ExpirationPolicy expirationPolicy, @Nonnull Lifecycle<E>... lifecycles) {
+        return new AllOf<>(expirationPolicy, ordered(lifecycles));
+    }
+
+    /**
+     * A lifecycle that expires while its component would not, with the component's policy.
+     *
+     * @since 1.0.0
+     *
+     * @param lifecycle the component
+     * @return the negated lifecycle
+     */
+    @Nonnull
+    public static <E> Lifecycle<E> not(@Nonnull Lifecycle<E> lifecycle) {
+        Objects.requireNonNull(lifecycle, "lifecycle");
+        return new Not<>(lifecycle);
+    }
+
+    /**
+     * Gets the time at which a lifecycle is certain to expire without testing another event:
+     * the deadline of a {@link DeadlineLifecycle}, the earliest deadline of an {@link #anyOf}
+     * and the latest of an {@link #allOf} made only of lifecycles with a deadline.
+     *
+     * @since 1.0.0
+     *
+     * @param lifecycle the lifecycle
+     * @return the deadline in {@link System#nanoTime()} units, empty if there is none
+     */
+    @Nonnull
+    public static OptionalLong deadline(@Nonnull Lifecycle<?> lifecycle) {
+        Objects.requireNonNull(lifecycle, "lifecycle");
+        if (lifecycle instanceof DeadlineLifecycle) {
+            return OptionalLong.of(((DeadlineLifecycle<?>) lifecycle).deadline());
+        }
+        if (lifecycle instanceof AnyOf) {
+            OptionalLong earliest = OptionalLong.empty();
+            for (Lifecycle<?> component : ((AnyOf<?>) lifecycle).lifecycles) {
+                OptionalLong deadline = deadline(component);
+                if (deadline.isPresent() && (!earliest.isPresent() || deadline.getAsLong() - earliest.getAsLong() < 0)) {
+                    earliest = deadline;
+                }
+            }
+            return earliest;
+        }
+        if (lifecycle instanceof AllOf) {
+            OptionalLong latest = OptionalLong.empty();
+            for (Lifecycle<?> component : ((AllOf<?>) lifecycle).lifecycles) {
+                OptionalLong deadline = deadline(component);
+                if (!deadline.isPresent()) {
+                    return OptionalLong.empty();
+                }
+                if (!latest.isPresent() || deadline.getAsLong() - latest.getAsLong() > 0) {
+                    latest = deadline;
+                }
+            }
+            return latest;
+        }
+        return OptionalLong.empty();
+    }
+
+    static boolean stateful(@Nonnull Lifecycle<?> lifecycle) {
+        if (lifecycle instanceof Composite) {
+            return ((Composite<?>) lifecycle).stateful > 0;
+        }
+        return lifecycle instanceof IncrementalLifecycle;
+    }
+
+    static int cost(@Nonnull Lifecycle<?> lifecycle) {
+        if (lifecycle instanceof Composite) {
+            return ((Composite<?>) lifecycle).cost;
+        }
+        if (lifecycle instanceof DeadlineLifecycle || lifecycle instanceof DurableLifecycle || lifecycle instanceof IndefiniteLifecycle) {
+            return CLOCK;
+        }
+        if (lifecycle instanceof IncrementalLifecycle) {
+            return COUNTER;
+        }
+        if (lifecycle instanceof SuppliedConditionalLifecycle) {
+            return SUPPLIED;
+        }
+        return CONDITIONAL;
+    }
+
+    @Nonnull
+    private static <E> Lifecycle<E>[] ordered(@Nonnull Lifecycle<E>[] lifecycles) {
+        Objects.requireNonNull(lifecycles, "lifecycles");
+        Preconditions.checkArgument(lifecycles.length > 0, "no lifecycles");
+        Lifecycle<E>[] ordered = lifecycles.clone();
+        for (Lifecycle<E> lifecycle : ordered) {
+            Objects.requireNonNull(lifecycle, "lifecycle");
+        }
+        // stateful components lead so they are never short-circuited, the sort is stable
+        // so components of equal cost keep the order they were given in
+        Arrays.sort(ordered, Comparator.<Lifecycle<E>>comparingInt(lifecycle -> stateful(lifecycle) ? 0 : 1)
+                .thenComparingInt(Lifecycles::cost));
+        return ordered;
+    }
+
+    private abstract static class Composite<E> implements Lifecycle<E> {
+
+        private final ExpirationPolicy expirationPolicy;
+        final Lifecycle<E>[] lifecycles;
+        final int stateful;
+        private final int cost;
+        private volatile boolean closed;
+
+        private Composite(@Nonnull ExpirationPolicy expirationPolicy, @Nonnull Lifecycle<E>[] lifecycles) {
+            Objects.requireNonNull(expirationPolicy, "terminationStage");
+            this.expirationPolicy = expirationPolicy;
+            this.lifecycles = lifecycles;
+            int stateful = 0;
+            int cost = CLOCK;
+            for (Lifecycle<E> lifecycle : lifecycles) {
+                if (stateful(lifecycle)) {
+                    stateful++;
+                }
+                cost = Math.max(cost, cost(lifecycle));
+            }
+            this.stateful = stateful;
+            this.cost = cost;
+        }
+
+        @Nonnull
+        @Override
+        public ExpirationPolicy expirationPolicy() {
+            return this.expirationPolicy;
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+            for (Lifecycle<E> lifecycle : this.lifecycles) {
+                lifecycle.close();
+            }
+        }
+
+        @Override
+        public boolean closed() {
+            return this.closed;
+        }
+    }
+
+    private static final class AnyOf<E> extends Composite<E> {
+
+        private AnyOf(@Nonnull ExpirationPolicy expirationPolicy, @Nonnull Lifecycle<E>[] lifecycles) {
+            super(expirationPolicy, lifecycles);
+        }
+
+        @Override
+        public boolean test(E event) {
+            boolean expired = false;
+            for (int i = 0; i < this.stateful; i++) {
+                expired |= this.lifecycles[i].test(event);
+            }
+            if (expired) {
+                return true;
+            }
+            for (int i = this.stateful; i < this.lifecycles.length; i++) {
+                if (this.lifecycles[i].test(event)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class AllOf<E> extends Composite<E> {
+
+        private AllOf(@Nonnull ExpirationPolicy expirationPolicy, @Nonnull Lifecycle<E>[] lifecycles) {
+            super(expirationPolicy, lifecycles);
+        }
+
+        @Override
+        public boolean test(E event) {
+            boolean expired = true;
+            for (int i = 0; i < this.stateful; i++) {
+                expired &= this.lifecycles[i].test(event);
+            }
+            if (!expired) {
+                return false;
+            }
+            for (int i = this.stateful; i < this.lifecycles.length; i++) {
+                if (!this.lifecycles[i].test(event)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static final class Not<E> extends Composite<E> {
+
+        private final Lifecycle<E> lifecycle;
+
+        private Not(@Nonnull Lifecycle<E> lifecycle) {
+            super(lifecycle.expirationPolicy(), new Lifecycle[]{lifecycle});
+            this.lifecycle = lifecycle;
+        }
+
+        @Override
+        public boolean test(E event) {
+            return !this.lifecycle.test(event);
+        }
+    }
+
+    private Lifecycles() {
+        throw new IllegalStateException("This class cannot be instantiated");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event.lifecycle;
+
+import javax.annotation.Nonnegative;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A fixed number of permits spread over padded stripes, so threads acquiring
+ * concurrently mostly decrement different counters.
+ * <p>
+ * A thread starts at its own stripe and moves on to the others once it is empty.
+ * Stripes only ever count down, so failing to acquire means every permit is gone.
+ */
+final class StripedPermits {
+
+    private static final int PADDING = 16;
+    private static final int MAX_STRIPES = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors())) << 1;
+
+    private final AtomicIntegerArray stripes;
+    private final int mask;
+
+    StripedPermits(@Nonnegative int permits) {
+        int count = Math.max(1, Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, permits))));
+        this.stripes = new AtomicIntegerArray(count * PADDING);
+        this.mask = count - 1;
+        for (int i = 0; i < count; i++) {
+            this.stripes.set(i * PADDING, permits / count + (i < permits % count ? 1 : 0));
+        }
+    }
+
+    boolean acquire() {
+        int start = (int) Thread.currentThread().getId() * 0x9E3779B9;
+        start ^= start >>> 16;
+        for (int i = 0; i <= this.mask; i++) {
+            int index = ((start + i) & this.mask) * PADDING;
+            int available;
+            while ((available = this.stripes.get(index)) > 0) {
+                if (this.stripes.compareAndSet(index, available, available - 1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
\ No newline at end of file
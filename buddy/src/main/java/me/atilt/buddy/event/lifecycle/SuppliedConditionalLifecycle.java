@@ -25,17 +25,16 @@
 package me.atilt.buddy.event.lifecycle;
 
 import me.atilt.buddy.event.lifecycle.stage.ExpirationPolicy;
-import org.bukkit.event.Event;
 
 import javax.annotation.Nonnull;
 import java.util.Objects;
 import java.util.function.BooleanSupplier;
 
-public final class SuppliedConditionalLifecycle<E extends Event> implements Lifecycle<E> {
+public final class SuppliedConditionalLifecycle<E> implements Lifecycle<E> {
 
     private final ExpirationPolicy expirationPolicy;
     private final BooleanSupplier condition;
-    private boolean closed;
+    private volatile boolean closed;
 
     public SuppliedConditionalLifecycle(@Nonnull ExpirationPolicy expirationPolicy, @Nonnull BooleanSupplier condition) {
         Objects.requireNonNull(expirationPolicy, "terminationStage");
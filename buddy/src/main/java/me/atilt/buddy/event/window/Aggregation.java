@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event.window;
+
+public enum Aggregation {
+
+    COUNT(0L) {
+        @Override
+        public long accumulate(long current, long value) {
+            return current + 1;
+        }
+
+        @Override
+        public long merge(long left, long right) {
+            return left + right;
+        }
+    },
+    SUM(0L) {
+        @Override
+        public long merge(long left, long right) {
+            return left + right;
+        }
+    },
+    MIN(Long.MAX_VALUE) {
+        @Override
+        public long merge(long left, long right) {
+            return Math.min(left, right);
+        }
+    },
+    MAX(Long.MIN_VALUE) {
+        @Override
+        public long merge(long left, long right) {
+            return Math.max(left, right);
+        }
+    };
+
+    private final long identity;
+
+    Aggregation(long identity) {
+        this.identity = identity;
+    }
+
+    public long identity() {
+        return this.identity;
+    }
+
+    public long accumulate(long current, long value) {
+        return merge(current, value);
+    }
+
+    public abstract long merge(long left, long right);
+}
\ No newline at end of file
@@ -68,6 +68,19 @@ public final class Locations {
         return key(location.getBlockX(), location.getBlockY(), location.getBlockZ());
     }
 
+    /**
+     * Packs chunk coordinates into a single long key.
+     *
+     * @since 1.0.0
+     *
+     * @param chunkX chunk x coordinate
+     * @param chunkZ chunk z coordinate
+     * @return the packed long key
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
     /**
      * Unpacks a long key into a {@link Location}.
      *
@@ -0,0 +1,338 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.registry.type;
+
+import it.unimi.dsi.fastutil.ints.AbstractInt2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.objects.AbstractObjectIterator;
+import it.unimi.dsi.fastutil.objects.AbstractObjectSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.ObjectSet;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A concurrent open-addressing map of primitive int keys.
+ * <p>
+ * Keys are spread over independently locked segments. Readers never lock: a slot's key is
+ * written before its value is published through a volatile write, and a published slot only
+ * ever keeps its key, so a reader that sees a value also sees the key it belongs to. Removed
+ * slots hold a tombstone until the segment is rebuilt, and a rebuilt table is published as a
+ * whole. Iteration is weakly consistent.
+ *
+ * @since 1.0.0
+ * @version 1.0.0
+ * @author Atilt
+ *
+ * @param <V> the value type
+ */
+public final class ConcurrentInt2ObjectMap<V> extends AbstractInt2ObjectMap<V> {
+
+    static final int SEGMENT_BITS = 4;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    static final int MIN_CAPACITY = 8;
+    private static final Object TOMBSTONE = new Object();
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public ConcurrentInt2ObjectMap() {
+        this(0);
+    }
+
+    public ConcurrentInt2ObjectMap(@Nonnegative int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expected / SEGMENTS + 1) {
+            capacity <<= 1;
+        }
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments[i] = new Segment(capacity);
+        }
+    }
+
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @Nonnull
+    private Segment segment(int hash) {
+        return this.segments[hash >>> (Integer.SIZE - SEGMENT_BITS)];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int hash = mix(key);
+        Object value = segment(hash).table.find(key, hash);
+        return value == null || value == TOMBSTONE ? null : (V) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(int key, V defaultValue) {
+        int hash = mix(key);
+        Object value = segment(hash).table.find(key, hash);
+        return value == null || value == TOMBSTONE ? defaultValue : (V) value;
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        int hash = mix(key);
+        Object value = segment(hash).table.find(key, hash);
+        return value != null && value != TOMBSTONE;
+    }
+
+    @Override
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "value");
+        int hash = mix(key);
+        return segment(hash).put(key, hash, value);
+    }
+
+    @Override
+    public V remove(int key) {
+        int hash = mix(key);
+        return segment(hash).remove(key, hash);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment segment : this.segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Segment segment : this.segments) {
+            if (segment.size != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : this.segments) {
+            segment.clear();
+        }
+    }
+
+    @Nonnull
+    @Override
+    public ObjectSet<Int2ObjectMap.Entry<V>> int2ObjectEntrySet() {
+        return new AbstractObjectSet<Int2ObjectMap.Entry<V>>() {
+            @Nonnull
+            @Override
+            public ObjectIterator<Int2ObjectMap.Entry<V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return ConcurrentInt2ObjectMap.this.size();
+            }
+
+            @Override
+            public void clear() {
+                ConcurrentInt2ObjectMap.this.clear();
+            }
+        };
+    }
+
+    private static final class Table {
+
+        private final int[] keys;
+        private final AtomicReferenceArray<Object> values;
+        private final int mask;
+
+        private Table(@Nonnegative int capacity) {
+            this.keys = new int[capacity];
+            this.values = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+        }
+
+        private Object find(int key, int hash) {
+            int slot = hash & this.mask;
+            Object value;
+            while ((value = this.values.get(slot)) != null) {
+                if (this.keys[slot] == key) {
+                    return value;
+                }
+                slot = (slot + 1) & this.mask;
+            }
+            return null;
+        }
+    }
+
+    private static final class Segment {
+
+        private volatile Table table;
+        private volatile int size;
+        private int used;
+
+        private Segment(@Nonnegative int capacity) {
+            this.table = new Table(capacity);
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized <V> V put(int key, int hash, @Nonnull V value) {
+            Table table = this.table;
+            int slot = hash & table.mask;
+            Object current;
+            while ((current = table.values.get(slot)) != null) {
+                if (table.keys[slot] == key) {
+                    table.values.set(slot, value);
+                    if (current == TOMBSTONE) {
+                        this.size++;
+                        return null;
+                    }
+                    return (V) current;
+                }
+                slot = (slot + 1) & table.mask;
+            }
+            table.keys[slot] = key;
+            table.values.set(slot, value);
+            this.size++;
+            if (++this.used > table.keys.length - (table.keys.length >> 2)) {
+                rebuild();
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized <V> V remove(int key, int hash) {
+            Table table = this.table;
+            int slot = hash & table.mask;
+            Object current;
+            while ((current = table.values.get(slot)) != null) {
+                if (table.keys[slot] == key) {
+                    if (current == TOMBSTONE) {
+                        return null;
+                    }
+                    table.values.set(slot, TOMBSTONE);
+                    this.size--;
+                    return (V) current;
+                }
+                slot = (slot + 1) & table.mask;
+            }
+            return null;
+        }
+
+        private synchronized void clear() {
+            this.table = new Table(MIN_CAPACITY);
+            this.size = 0;
+            this.used = 0;
+        }
+
+        private void rebuild() {
+            Table table = this.table;
+            int capacity = MIN_CAPACITY;
+            while (capacity - (capacity >> 2) <= this.size * 2) {
+                capacity <<= 1;
+            }
+            Table next = new Table(capacity);
+            for (int i = 0; i < table.keys.length; i++) {
+                Object value = table.values.get(i);
+                if (value == null || value == TOMBSTONE) {
+                    continue;
+                }
+                int key = table.keys[i];
+                int slot = mix(key) & next.mask;
+                while (next.values.get(slot) != null) {
+                    slot = (slot + 1) & next.mask;
+                }
+                next.keys[slot] = key;
+                next.values.lazySet(slot, value);
+            }
+            this.used = this.size;
+            // the volatile write publishes every slot of the new table
+            this.table = next;
+        }
+    }
+
+    private final class EntryIterator extends AbstractObjectIterator<Int2ObjectMap.Entry<V>> {
+
+        private int segment;
+        private Table table = ConcurrentInt2ObjectMap.this.segments[0].table;
+        private int slot = -1;
+        private Int2ObjectMap.Entry<V> next;
+        private Int2ObjectMap.Entry<V> last;
+
+        private EntryIterator() {
+            advance();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            this.next = null;
+            while (true) {
+                while (++this.slot < this.table.keys.length) {
+                    Object value = this.table.values.get(this.slot);
+                    if (value != null && value != TOMBSTONE) {
+                        this.next = new BasicEntry<>(this.table.keys[this.slot], (V) value);
+                        return;
+                    }
+                }
+                if (++this.segment >= SEGMENTS) {
+                    return;
+                }
+                this.table = ConcurrentInt2ObjectMap.this.segments[this.segment].table;
+                this.slot = -1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next != null;
+        }
+
+        @Override
+        public Int2ObjectMap.Entry<V> next() {
+            if (this.next == null) {
+                throw new NoSuchElementException();
+            }
+            this.last = this.next;
+            advance();
+            return this.last;
+        }
+
+        @Override
+        public void remove() {
+            if (this.last == null) {
+                throw new IllegalStateException();
+            }
+            ConcurrentInt2ObjectMap.this.remove(this.last.getIntKey());
+            this.last = null;
+        }
+    }
+}
\ No newline at end of file
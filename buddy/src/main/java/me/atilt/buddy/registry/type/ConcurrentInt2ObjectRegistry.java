@@ -0,0 +1,51 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.registry.type;
+
+import javax.annotation.Nonnegative;
+
+/**
+ * An {@link Int2ObjectRegistry} that may be read and written from many threads at once.
+ * <p>
+ * Lookups never lock and never box the key; writes lock one of several independent
+ * segments. Iteration is weakly consistent and never throws
+ * {@link java.util.ConcurrentModificationException}.
+ * <p>
+ * @since 1.0.0
+ * @version 1.0.0
+ * @author Atilt
+ *
+ * @param <V> the registry value type
+ */
+public class ConcurrentInt2ObjectRegistry<V> extends Int2ObjectRegistry<V> {
+
+    public ConcurrentInt2ObjectRegistry() {
+        super(new ConcurrentInt2ObjectMap<>());
+    }
+
+    public ConcurrentInt2ObjectRegistry(@Nonnegative int expected) {
+        super(new ConcurrentInt2ObjectMap<>(expected));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,328 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.registry.type;
+
+import com.google.common.collect.Iterators;
+import it.unimi.dsi.fastutil.longs.AbstractLong2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongSets;
+import it.unimi.dsi.fastutil.objects.AbstractObjectIterator;
+import it.unimi.dsi.fastutil.objects.AbstractObjectSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.ObjectIterators;
+import it.unimi.dsi.fastutil.objects.ObjectSet;
+import me.atilt.buddy.closeable.Closeable;
+import me.atilt.buddy.location.Locations;
+import me.atilt.buddy.registry.Registry;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A fastutil implementation of {@link Registry} keyed by block positions packed with
+ * {@link Locations#key(int, int, int)}.
+ * <p>
+ * Entries are bucketed by the chunk they fall in, so a chunk's entries can be queried
+ * or dropped as a whole without scanning the registry. A registry covers a single world.
+ * <p>
+ * @since 1.0.0
+ * @version 1.0.0
+ * @author Atilt
+ *
+ * @param <V> the registry value type
+ */
+public class Long2ObjectRegistry<V> implements Registry<Long, V> {
+
+    private final Long2ObjectMap<Long2ObjectOpenHashMap<V>> chunks = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectMap<V> view = new View();
+    private int size;
+    private boolean closed;
+
+    /**
+     * Gets the key of the chunk containing a packed block position. Unlike
+     * {@link Locations#keyX(long)} this accepts positions with a negative x coordinate.
+     */
+    private static long chunkKey(long key) {
+        int x = (int) (key >> 38);
+        int z = (int) (key << 38 >> 38);
+        return Locations.chunkKey(x >> 4, z >> 4);
+    }
+
+    @Nullable
+    public V register(long key, @Nonnull V v) {
+        Objects.requireNonNull(v, "value");
+        long chunkKey = chunkKey(key);
+        Long2ObjectOpenHashMap<V> bucket = this.chunks.get(chunkKey);
+        if (bucket == null) {
+            bucket = new Long2ObjectOpenHashMap<>();
+            this.chunks.put(chunkKey, bucket);
+        }
+        V previous = bucket.put(key, v);
+        if (previous == null) {
+            this.size++;
+        }
+        return previous;
+    }
+
+    public void register(@Nonnull Long2ObjectMap<V> all) {
+        Objects.requireNonNull(all, "all");
+        for (Long2ObjectMap.Entry<V> entry : Long2ObjectMaps.fastIterable(all)) {
+            register(entry.getLongKey(), entry.getValue());
+        }
+    }
+
+    @Nullable
+    public V unregister(long key) {
+        long chunkKey = chunkKey(key);
+        Long2ObjectOpenHashMap<V> bucket = this.chunks.get(chunkKey);
+        if (bucket == null) {
+            return null;
+        }
+        V previous = bucket.remove(key);
+        if (previous != null) {
+            this.size--;
+            if (bucket.isEmpty()) {
+                this.chunks.remove(chunkKey);
+            }
+        }
+        return previous;
+    }
+
+    @Nullable
+    public V get(long key) {
+        Long2ObjectOpenHashMap<V> bucket = this.chunks.get(chunkKey(key));
+        return bucket == null ? null : bucket.get(key);
+    }
+
+    @Nonnull
+    public V getOrDefault(long key, @Nonnull V v) {
+        Objects.requireNonNull(v, "value");
+        Long2ObjectOpenHashMap<V> bucket = this.chunks.get(chunkKey(key));
+        return bucket == null ? v : bucket.getOrDefault(key, v);
+    }
+
+    /**
+     * Gets the entries of a chunk, keyed by their packed block positions.
+     *
+     * @since 1.0.0
+     *
+     * @param chunkX chunk x coordinate
+     * @param chunkZ chunk z coordinate
+     * @return an unmodifiable view of the chunk's entries
+     */
+    @Nonnull
+    public Long2ObjectMap<V> chunk(int chunkX, int chunkZ) {
+        Long2ObjectOpenHashMap<V> bucket = this.chunks.get(Locations.chunkKey(chunkX, chunkZ));
+        return bucket == null ? Long2ObjectMaps.emptyMap() : Long2ObjectMaps.unmodifiable(bucket);
+    }
+
+    /**
+     * Unregisters every entry of a chunk at once, as on chunk unload. The
+     * removed values are not closed.
+     *
+     * @since 1.0.0
+     *
+     * @param chunkX chunk x coordinate
+     * @param chunkZ chunk z coordinate
+     * @return the removed entries, keyed by their packed block positions
+     */
+    @Nonnull
+    public Long2ObjectMap<V> unregisterChunk(int chunkX, int chunkZ) {
+        Long2ObjectOpenHashMap<V> bucket = this.chunks.remove(Locations.chunkKey(chunkX, chunkZ));
+        if (bucket == null) {
+            return Long2ObjectMaps.emptyMap();
+        }
+        this.size -= bucket.size();
+        return bucket;
+    }
+
+    public boolean containsChunk(int chunkX, int chunkZ) {
+        return this.chunks.containsKey(Locations.chunkKey(chunkX, chunkZ));
+    }
+
+    @Nonnull
+    public ObjectIterator<Long2ObjectMap.Entry<V>> longIterator() {
+        return ObjectIterators.unmodifiable(this.view.long2ObjectEntrySet().iterator());
+    }
+
+    @Deprecated
+    @Nullable
+    @Override
+    public V register(@Nonnull Long key, @Nonnull V v) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(v, "value");
+        return register(key.longValue(), v);
+    }
+
+    @Override
+    public void register(@Nonnull Map<? extends Long, ? extends V> all) {
+        Objects.requireNonNull(all, "all");
+        for (Map.Entry<? extends Long, ? extends V> entry : all.entrySet()) {
+            register(entry.getKey().longValue(), entry.getValue());
+        }
+    }
+
+    @Deprecated
+    @Nullable
+    @Override
+    public V unregister(@Nonnull Long key) {
+        Objects.requireNonNull(key, "key");
+        return unregister(key.longValue());
+    }
+
+    @Deprecated
+    @Nullable
+    @Override
+    public V get(@Nonnull Long key) {
+        Objects.requireNonNull(key, "key");
+        return get(key.longValue());
+    }
+
+    @Deprecated
+    @Nonnull
+    @Override
+    public V getOrDefault(@Nonnull Long key, @Nonnull V v) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(v, "value");
+        return getOrDefault(key.longValue(), v);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Deprecated
+    @Nonnull
+    @Override
+    public Set<Long> keys() {
+        return LongSets.unmodifiable(this.view.keySet());
+    }
+
+    @Nonnull
+    @Override
+    public Collection<V> values() {
+        return Collections.unmodifiableCollection(this.view.values());
+    }
+
+    @Nonnull
+    @Override
+    public Map<Long, V> handle() {
+        return Long2ObjectMaps.unmodifiable(this.view);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Long2ObjectOpenHashMap<V> bucket : this.chunks.values()) {
+            for (V value : bucket.values()) {
+                if (value instanceof Closeable) {
+                    ((Closeable) value).close();
+                }
+            }
+        }
+        this.closed = true;
+    }
+
+    @Override
+    public boolean closed() {
+        return this.closed;
+    }
+
+    @Deprecated
+    @Override
+    public Iterator<Map.Entry<Long, V>> iterator() {
+        return Iterators.unmodifiableIterator(this.view.entrySet().iterator());
+    }
+
+    private final class View extends AbstractLong2ObjectMap<V> {
+
+        @Override
+        public V get(long key) {
+            return Long2ObjectRegistry.this.get(key);
+        }
+
+        @Override
+        public boolean containsKey(long key) {
+            Long2ObjectOpenHashMap<V> bucket = Long2ObjectRegistry.this.chunks.get(chunkKey(key));
+            return bucket != null && bucket.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return Long2ObjectRegistry.this.size;
+        }
+
+        @Nonnull
+        @Override
+        public ObjectSet<Long2ObjectMap.Entry<V>> long2ObjectEntrySet() {
+            return new AbstractObjectSet<Long2ObjectMap.Entry<V>>() {
+                @Nonnull
+                @Override
+                public ObjectIterator<Long2ObjectMap.Entry<V>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return Long2ObjectRegistry.this.size;
+                }
+            };
+        }
+    }
+
+    private final class EntryIterator extends AbstractObjectIterator<Long2ObjectMap.Entry<V>> {
+
+        private final ObjectIterator<Long2ObjectOpenHashMap<V>> buckets = Long2ObjectRegistry.this.chunks.values().iterator();
+        private ObjectIterator<Long2ObjectMap.Entry<V>> entries = ObjectIterators.emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!this.entries.hasNext()) {
+                if (!this.buckets.hasNext()) {
+                    return false;
+                }
+                this.entries = this.buckets.next().long2ObjectEntrySet().iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Long2ObjectMap.Entry<V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.entries.next();
+        }
+    }
+}
\ No newline at end of file
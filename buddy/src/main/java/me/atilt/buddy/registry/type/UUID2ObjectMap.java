@@ -0,0 +1,300 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.registry.type;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * An open-addressing map of {@link UUID} keys stored as parallel most and least
+ * significant bit arrays.
+ * <p>
+ * No key object is kept per entry, and lookups by raw bits allocate nothing. Removed
+ * slots hold a tombstone until the table is rebuilt, which keeps iterator removal safe.
+ */
+final class UUID2ObjectMap<V> extends AbstractMap<UUID, V> {
+
+    private static final int MIN_CAPACITY = 8;
+    private static final Object TOMBSTONE = new Object();
+
+    private long[] mostBits;
+    private long[] leastBits;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int used;
+
+    UUID2ObjectMap() {
+        this(0);
+    }
+
+    UUID2ObjectMap(@Nonnegative int expected) {
+        allocate(capacity(expected));
+    }
+
+    private static int capacity(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity - (capacity >> 2) <= expected) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int mix(long mostBits, long leastBits) {
+        long h = (mostBits ^ leastBits) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void allocate(@Nonnegative int capacity) {
+        this.mostBits = new long[capacity];
+        this.leastBits = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    private int find(long mostBits, long leastBits) {
+        int slot = mix(mostBits, leastBits) & this.mask;
+        Object value;
+        while ((value = this.values[slot]) != null) {
+            if (this.mostBits[slot] == mostBits && this.leastBits[slot] == leastBits) {
+                return value == TOMBSTONE ? -1 : slot;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long mostBits, long leastBits) {
+        int slot = find(mostBits, leastBits);
+        return slot < 0 ? null : (V) this.values[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    V getOrDefault(long mostBits, long leastBits, V defaultValue) {
+        int slot = find(mostBits, leastBits);
+        return slot < 0 ? defaultValue : (V) this.values[slot];
+    }
+
+    boolean containsKey(long mostBits, long leastBits) {
+        return find(mostBits, leastBits) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V put(long mostBits, long leastBits, @Nonnull V value) {
+        Objects.requireNonNull(value, "value");
+        int slot = mix(mostBits, leastBits) & this.mask;
+        Object current;
+        while ((current = this.values[slot]) != null) {
+            if (this.mostBits[slot] == mostBits && this.leastBits[slot] == leastBits) {
+                this.values[slot] = value;
+                if (current == TOMBSTONE) {
+                    this.size++;
+                    return null;
+                }
+                return (V) current;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        this.mostBits[slot] = mostBits;
+        this.leastBits[slot] = leastBits;
+        this.values[slot] = value;
+        this.size++;
+        if (++this.used > this.values.length - (this.values.length >> 2)) {
+            rebuild();
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(long mostBits, long leastBits) {
+        int slot = find(mostBits, leastBits);
+        if (slot < 0) {
+            return null;
+        }
+        V value = (V) this.values[slot];
+        this.values[slot] = TOMBSTONE;
+        this.size--;
+        return value;
+    }
+
+    private void rebuild() {
+        long[] mostBits = this.mostBits;
+        long[] leastBits = this.leastBits;
+        Object[] values = this.values;
+        allocate(capacity(this.size * 2));
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null || value == TOMBSTONE) {
+                continue;
+            }
+            int slot = mix(mostBits[i], leastBits[i]) & this.mask;
+            while (this.values[slot] != null) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.mostBits[slot] = mostBits[i];
+            this.leastBits[slot] = leastBits[i];
+            this.values[slot] = value;
+        }
+        this.used = this.size;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (!(key instanceof UUID)) {
+            return null;
+        }
+        UUID uuid = (UUID) key;
+        return get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        if (!(key instanceof UUID)) {
+            return defaultValue;
+        }
+        UUID uuid = (UUID) key;
+        return getOrDefault(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), defaultValue);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (!(key instanceof UUID)) {
+            return false;
+        }
+        UUID uuid = (UUID) key;
+        return containsKey(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    @Override
+    public V put(@Nonnull UUID key, @Nonnull V value) {
+        Objects.requireNonNull(key, "key");
+        return put(key.getMostSignificantBits(), key.getLeastSignificantBits(), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (!(key instanceof UUID)) {
+            return null;
+        }
+        UUID uuid = (UUID) key;
+        return remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.values, null);
+        this.size = 0;
+        this.used = 0;
+    }
+
+    @Nonnull
+    @Override
+    public Set<Map.Entry<UUID, V>> entrySet() {
+        return new AbstractSet<Map.Entry<UUID, V>>() {
+            @Nonnull
+            @Override
+            public Iterator<Map.Entry<UUID, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return UUID2ObjectMap.this.size;
+            }
+
+            @Override
+            public void clear() {
+                UUID2ObjectMap.this.clear();
+            }
+        };
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<UUID, V>> {
+
+        private final Object[] values = UUID2ObjectMap.this.values;
+        private int slot = -1;
+        private int next = -1;
+
+        private EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            int next = this.next + 1;
+            while (next < this.values.length && (this.values[next] == null || this.values[next] == TOMBSTONE)) {
+                next++;
+            }
+            this.next = next;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next < this.values.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<UUID, V> next() {
+            if (this.values != UUID2ObjectMap.this.values) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.slot = this.next;
+            advance();
+            UUID key = new UUID(mostBits[this.slot], leastBits[this.slot]);
+            return new AbstractMap.SimpleImmutableEntry<>(key, (V) this.values[this.slot]);
+        }
+
+        @Override
+        public void remove() {
+            if (this.values != UUID2ObjectMap.this.values) {
+                throw new ConcurrentModificationException();
+            }
+            if (this.slot < 0 || this.values[this.slot] == TOMBSTONE) {
+                throw new IllegalStateException();
+            }
+            this.values[this.slot] = TOMBSTONE;
+            UUID2ObjectMap.this.size--;
+        }
+    }
+}
\ No newline at end of file
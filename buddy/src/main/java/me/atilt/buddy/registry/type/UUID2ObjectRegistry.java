@@ -27,6 +27,7 @@ package me.atilt.buddy.registry.type;
 import me.atilt.buddy.closeable.Closeable;
 import me.atilt.buddy.registry.Registry;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Collection;
@@ -40,6 +41,10 @@ import java.util.UUID;
 /**
  * An implementation of {@link Registry} with {@link UUID}s as keys.
  * <p>
+ * Registries created without a handle store keys as raw most and least significant
+ * bits, keeping no {@link UUID} per entry, and can be queried by those bits without
+ * allocating.
+ * <p>
  * @since 1.0.0
  * @version 1.0.0
  * @author Atilt
@@ -49,11 +54,66 @@ import java.util.UUID;
 public class UUID2ObjectRegistry<V> implements Registry<UUID, V> {
 
     private final Map<UUID, V> handle;
+    private final UUID2ObjectMap<V> table;
     private boolean closed;
 
+    public UUID2ObjectRegistry() {
+        this(new UUID2ObjectMap<>());
+    }
+
+    public UUID2ObjectRegistry(@Nonnegative int expected) {
+        this(new UUID2ObjectMap<>(expected));
+    }
+
+    @SuppressWarnings("unchecked")
     public UUID2ObjectRegistry(@Nonnull Map<UUID, V> handle) {
         Objects.requireNonNull(handle, "handle");
         this.handle = handle;
+        this.table = handle instanceof UUID2ObjectMap ? (UUID2ObjectMap<V>) handle : null;
+    }
+
+    @Nullable
+    public V register(long mostBits, long leastBits, @Nonnull V v) {
+        Objects.requireNonNull(v, "value");
+        if (this.table != null) {
+            return this.table.put(mostBits, leastBits, v);
+        }
+        return this.handle.put(new UUID(mostBits, leastBits), v);
+    }
+
+    @Nullable
+    public V unregister(long mostBits, long leastBits) {
+        if (this.table != null) {
+            return this.table.remove(mostBits, leastBits);
+        }
+        return this.handle.remove(new UUID(mostBits, leastBits));
+    }
+
+    /**
+     * Gets the value registered to the {@link UUID} with the given bits. Allocates
+     * nothing unless this registry wraps a caller-supplied {@link Map}.
+     *
+     * @since 1.0.0
+     *
+     * @param mostBits the most significant bits of the key
+     * @param leastBits the least significant bits of the key
+     * @return the value, or {@code null} if none is registered
+     */
+    @Nullable
+    public V get(long mostBits, long leastBits) {
+        if (this.table != null) {
+            return this.table.get(mostBits, leastBits);
+        }
+        return this.handle.get(new UUID(mostBits, leastBits));
+    }
+
+    @Nonnull
+    public V getOrDefault(long mostBits, long leastBits, @Nonnull V v) {
+        Objects.requireNonNull(v, "value");
+        if (this.table != null) {
+            return this.table.getOrDefault(mostBits, leastBits, v);
+        }
+        return this.handle.getOrDefault(new UUID(mostBits, leastBits), v);
     }
 
     @Nullable
@@ -42,7 +42,7 @@ import java.util.function.Supplier;
 public final class Lazy<L> implements Supplier<L> {
     
     private final Supplier<L> handle;
-    private L value;
+    private volatile L value;
 
     private Lazy(@Nonnull Supplier<L> handle) {
         Objects.requireNonNull(handle, "handle");
@@ -82,7 +82,8 @@ public final class Lazy<L> implements Supplier<L> {
 
     /**
      * Returns the cached value, or caches then returns
-     * the value if not yet cached.
+     * the value if not yet cached. The underlying supplier
+     * is run at most once, even when called concurrently.
      *
      * @since 1.0.0
      *
@@ -90,8 +91,14 @@ public final class Lazy<L> implements Supplier<L> {
      */
     @Override
     public L get() {
-        if (this.value == null) {
-            this.value = this.handle.get();
+        L value = this.value;
+        if (value == null) {
+            synchronized (this) {
+                value = this.value;
+                if (value == null) {
+                    this.value = value = this.handle.get();
+                }
+            }
         }
         return value;
     }
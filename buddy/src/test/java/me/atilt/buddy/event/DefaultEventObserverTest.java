@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import me.atilt.buddy.event.lifecycle.IndefiniteLifecycle;
+import me.atilt.buddy.event.lifecycle.stage.ExpirationPolicy;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DefaultEventObserverTest {
+
+    private final TestServer server = TestServer.get();
+    private final EventManager eventManager = new EventManager(this.server.plugin());
+
+    @AfterEach
+    void close() {
+        this.eventManager.close();
+    }
+
+    @Test
+    void inheritedBatchesKeepBatchingWhenTheOriginalCloses() throws Exception {
+        Player player = this.server.join("robin");
+        List<List<String>> batches = new ArrayList<>();
+        ObservableEvent<PlayerMoveEvent> first = this.eventManager.observe(PlayerMoveEvent.class)
+                .batch(event -> event.getPlayer().getName(), 20, 2, batch -> batches.add(new ArrayList<>(batch)))
+                .build();
+        ObservableEvent<PlayerMoveEvent> second = this.eventManager.observe(PlayerMoveEvent.class)
+                .inherit(first)
+                .lifecycle(new IndefiniteLifecycle<>(ExpirationPolicy.HARD))
+                .build();
+
+        this.server.call(new PlayerMoveEvent(player, null, null));
+        assertEquals(0, batches.size());
+
+        first.close();
+        assertEquals(1, batches.size());
+        assertEquals(1, batches.get(0).size());
+
+        this.server.call(new PlayerMoveEvent(player, null, null));
+        assertEquals(2, batches.size());
+        assertEquals(2, batches.get(1).size());
+        second.close();
+    }
+
+    @Test
+    void closingReportsAFailingLastBatch() throws Exception {
+        Player player = this.server.join("kai");
+        AtomicInteger deliveries = new AtomicInteger();
+        ObservableEvent<PlayerMoveEvent> observer = this.eventManager.observe(PlayerMoveEvent.class)
+                .batch(20, 2, batch -> {
+                    deliveries.incrementAndGet();
+                    throw new IllegalStateException("batch");
+                })
+                .build();
+
+        this.server.call(new PlayerMoveEvent(player, null, null));
+        observer.close();
+        assertEquals(1, deliveries.get());
+        assertTrue(observer.closed());
+    }
+}
\ No newline at end of file
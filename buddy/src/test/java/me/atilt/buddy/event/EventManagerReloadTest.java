@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventManagerReloadTest {
+
+    private static final Function<PlayerMoveEvent, UUID> MOVER = event -> event.getPlayer().getUniqueId();
+    private static final Function<PlayerQuitEvent, UUID> QUITTER = event -> event.getPlayer().getUniqueId();
+
+    private final TestServer server = TestServer.get();
+    private final EventManager eventManager = new EventManager(this.server.plugin());
+
+    @AfterEach
+    void close() {
+        this.eventManager.close();
+    }
+
+    @Test
+    void playerScopesCloseOnQuitAfterReload() {
+        Player player = this.server.join("alex");
+        List<ObserverScope> scopes = new ArrayList<>();
+        assertTrue(this.eventManager.define(events -> scopes.add(events.playerScope(player.getUniqueId()))));
+        assertTrue(this.eventManager.reload());
+        assertEquals(2, scopes.size());
+        assertSame(scopes.get(0), scopes.get(1));
+
+        this.server.quit(player);
+        assertTrue(scopes.get(0).closed());
+    }
+
+    @Test
+    void reloadEndsTheJoinsOfTheReplacedDefinition() {
+        Player player = this.server.join("sam");
+        AtomicInteger matches = new AtomicInteger();
+        List<ObserverScope> scopes = new ArrayList<>();
+        assertTrue(this.eventManager.define(events -> scopes.add(events.join(PlayerMoveEvent.class, MOVER, event -> event.getPlayer().getName(),
+                PlayerQuitEvent.class, QUITTER, Duration.ofMinutes(1), (name, quit) -> matches.incrementAndGet()))));
+        assertTrue(this.eventManager.reload());
+        assertEquals(2, scopes.size());
+        assertTrue(scopes.get(0).closed());
+        assertFalse(scopes.get(1).closed());
+
+        this.server.call(new PlayerMoveEvent(player, null, null));
+        this.server.quit(player);
+        assertEquals(1, matches.get());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,241 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.event;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+/**
+ * A main-thread-only server for tests. Registered listeners are called by {@link #call(Event)},
+ * scheduled tasks only run through {@link #runTasks()} and repeating tasks never run.
+ */
+final class TestServer {
+
+    private static final TestServer INSTANCE = new TestServer();
+
+    private final Logger logger = Logger.getLogger("TestServer");
+    private final Map<UUID, Player> online = new ConcurrentHashMap<>();
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+    private final List<Task> tasks = new CopyOnWriteArrayList<>();
+    private final Plugin plugin;
+
+    private TestServer() {
+        PluginManager pluginManager = proxy(PluginManager.class, (method, args) -> {
+            if (method.getName().equals("registerEvent") && args.length == 6) {
+                this.registrations.add(new Registration((Class<?>) args[0], (Listener) args[1], (EventPriority) args[2], (EventExecutor) args[3]));
+            }
+            return null;
+        });
+        BukkitScheduler scheduler = proxy(BukkitScheduler.class, (method, args) -> {
+            Task task = new Task((Runnable) args[1]);
+            // repeating tasks, such as the manager's ticker, are driven by the tests themselves
+            if (!method.getName().equals("runTaskTimer")) {
+                this.tasks.add(task);
+            }
+            return task.handle;
+        });
+        Server server = proxy(Server.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getPluginManager":
+                    return pluginManager;
+                case "getScheduler":
+                    return scheduler;
+                case "getPlayer":
+                    return args[0] instanceof UUID ? this.online.get(args[0]) : null;
+                case "getLogger":
+                    return this.logger;
+                case "isPrimaryThread":
+                    return true;
+                default:
+                    return method.getReturnType() == String.class ? "test" : null;
+            }
+        });
+        Bukkit.setServer(server);
+        this.plugin = proxy(Plugin.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getServer":
+                    return server;
+                case "getLogger":
+                    return this.logger;
+                case "getName":
+                    return "test";
+                case "isEnabled":
+                    return true;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    @Nonnull
+    static TestServer get() {
+        return INSTANCE;
+    }
+
+    @Nonnull
+    Plugin plugin() {
+        return this.plugin;
+    }
+
+    @Nonnull
+    Player join(@Nonnull String name) {
+        UUID uniqueId = UUID.randomUUID();
+        Player player = proxy(Player.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getUniqueId":
+                    return uniqueId;
+                case "getName":
+                    return name;
+                default:
+                    return null;
+            }
+        });
+        this.online.put(uniqueId, player);
+        return player;
+    }
+
+    void quit(@Nonnull Player player) {
+        call(new PlayerQuitEvent(player, player.getName() + " left the game"));
+        this.online.remove(player.getUniqueId());
+    }
+
+    /**
+     * Calls every listener registered for the event's class, in priority order.
+     */
+    void call(@Nonnull Event event) {
+        List<Registration> called = new ArrayList<>();
+        for (Registration registration : this.registrations) {
+            if (registration.eventType == event.getClass()) {
+                called.add(registration);
+            }
+        }
+        called.sort(Comparator.comparing(registration -> registration.priority));
+        for (Registration registration : called) {
+            try {
+                registration.executor.execute(registration.listener, event);
+            } catch (EventException exception) {
+                throw new IllegalStateException(exception);
+            }
+        }
+    }
+
+    /**
+     * Runs every task scheduled so far that was not cancelled, delayed ones included.
+     */
+    void runTasks() {
+        List<Task> due = new ArrayList<>(this.tasks);
+        this.tasks.removeAll(due);
+        for (Task task : due) {
+            if (!task.cancelled) {
+                task.runnable.run();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(@Nonnull Class<T> type, @Nonnull Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    Object result = handler.handle(method, args == null ? new Object[0] : args);
+                    if (result == null && method.getReturnType() == boolean.class) {
+                        return false;
+                    }
+                    if (result == null && method.getReturnType() == int.class) {
+                        return 0;
+                    }
+                    return result;
+            }
+        });
+    }
+
+    private interface Handler {
+
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    private static final class Registration {
+
+        private final Class<?> eventType;
+        private final Listener listener;
+        private final EventPriority priority;
+        private final EventExecutor executor;
+
+        private Registration(Class<?> eventType, Listener listener, EventPriority priority, EventExecutor executor) {
+            this.eventType = eventType;
+            this.listener = listener;
+            this.priority = priority;
+            this.executor = executor;
+        }
+    }
+
+    private static final class Task {
+
+        private final Runnable runnable;
+        private final BukkitTask handle;
+        private volatile boolean cancelled;
+
+        private Task(Runnable runnable) {
+            this.runnable = runnable;
+            this.handle = proxy(BukkitTask.class, (method, args) -> {
+                if (method.getName().equals("cancel")) {
+                    this.cancelled = true;
+                } else if (method.getName().equals("isCancelled")) {
+                    return this.cancelled;
+                }
+                return null;
+            });
+        }
+    }
+}
\ No newline at end of file
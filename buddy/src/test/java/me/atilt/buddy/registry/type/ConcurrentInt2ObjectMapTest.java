@@ -0,0 +1,241 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023, Atilt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.atilt.buddy.registry.type;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentInt2ObjectMapTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int KEYS_PER_WRITER = 2048;
+    private static final int COLLIDING_KEYS = 32;
+    private static final int ROUNDS = 200_000;
+
+    /**
+     * Finds keys sharing key 0's segment and home slot, so they all probe one chain.
+     */
+    private static int[] collidingKeys(int count) {
+        int[] keys = new int[count];
+        int home = ConcurrentInt2ObjectMap.mix(0);
+        int found = 0;
+        keys[found++] = 0;
+        for (int key = 1; found < count; key++) {
+            int hash = ConcurrentInt2ObjectMap.mix(key);
+            if (hash >>> (Integer.SIZE - ConcurrentInt2ObjectMap.SEGMENT_BITS) == home >>> (Integer.SIZE - ConcurrentInt2ObjectMap.SEGMENT_BITS)
+                    && (hash & (ConcurrentInt2ObjectMap.MIN_CAPACITY - 1)) == (home & (ConcurrentInt2ObjectMap.MIN_CAPACITY - 1))) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+
+    @Test
+    void keyZeroAndCollidingKeys() {
+        ConcurrentInt2ObjectMap<Value> map = new ConcurrentInt2ObjectMap<>();
+        int[] keys = collidingKeys(COLLIDING_KEYS);
+        for (int key : keys) {
+            assertNull(map.put(key, new Value(key, 0)));
+        }
+        assertEquals(keys.length, map.size());
+        for (int i = 0; i < keys.length; i += 2) {
+            assertEquals(keys[i], map.remove(keys[i]).key);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            Value value = map.get(keys[i]);
+            if (i % 2 == 0) {
+                assertNull(value);
+                assertTrue(!map.containsKey(keys[i]));
+            } else {
+                assertEquals(keys[i], value.key);
+            }
+        }
+        // a tombstoned key is reinserted in place, not resurrected with its old value
+        Value zero = new Value(0, 1);
+        assertNull(map.put(0, zero));
+        assertSame(zero, map.get(0));
+        assertEquals(keys.length / 2 + 1, map.size());
+    }
+
+    @Test
+    void concurrentReadsNeverSeeWrongOrResurrectedValues() throws Exception {
+        ConcurrentInt2ObjectMap<Value> map = new ConcurrentInt2ObjectMap<>();
+        int[] colliding = collidingKeys(COLLIDING_KEYS);
+        // every key has exactly one writer, which therefore knows its final state
+        int[][] owned = new int[WRITERS][];
+        for (int writer = 0; writer < WRITERS; writer++) {
+            List<Integer> keys = new ArrayList<>();
+            for (int i = writer; i < colliding.length; i += WRITERS) {
+                keys.add(colliding[i]);
+            }
+            for (int i = 0; i < KEYS_PER_WRITER; i++) {
+                // spread keys over the whole int range, away from the colliding ones
+                keys.add(Integer.MIN_VALUE + (writer * KEYS_PER_WRITER + i) * 7919 + 1);
+            }
+            owned[writer] = keys.stream().mapToInt(Integer::intValue).toArray();
+        }
+        Value[][] expected = new Value[WRITERS][];
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < WRITERS; writer++) {
+                int index = writer;
+                writers.add(executor.submit(() -> {
+                    int[] keys = owned[index];
+                    Value[] state = new Value[keys.length];
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    start.await();
+                    for (int round = 0; round < ROUNDS; round++) {
+                        int slot = random.nextInt(keys.length);
+                        int key = keys[slot];
+                        if (random.nextInt(3) == 0) {
+                            assertSame(state[slot], map.remove(key));
+                            state[slot] = null;
+                            assertNull(map.get(key));
+                        } else {
+                            Value value = new Value(key, round);
+                            assertSame(state[slot], map.put(key, value));
+                            state[slot] = value;
+                            assertSame(value, map.get(key));
+                        }
+                    }
+                    expected[index] = state;
+                    return null;
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int reader = 0; reader < READERS; reader++) {
+                int index = reader;
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    int[] keys = owned[index % WRITERS];
+                    while (writing.get()) {
+                        int key = keys[random.nextInt(keys.length)];
+                        Value value = map.get(key);
+                        if (value != null) {
+                            assertEquals(key, value.key);
+                        }
+                        value = map.getOrDefault(key, null);
+                        if (value != null) {
+                            assertEquals(key, value.key);
+                        }
+                        if (index == 0) {
+                            for (Int2ObjectMap.Entry<Value> entry : map.int2ObjectEntrySet()) {
+                                assertEquals(entry.getIntKey(), entry.getValue().key);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(2, TimeUnit.MINUTES);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int size = 0;
+        for (int writer = 0; writer < WRITERS; writer++) {
+            for (int i = 0; i < owned[writer].length; i++) {
+                Value value = expected[writer][i];
+                assertSame(value, map.get(owned[writer][i]), "lost or resurrected value");
+                if (value != null) {
+                    size++;
+                }
+            }
+        }
+        assertEquals(size, map.size());
+        int iterated = 0;
+        for (Int2ObjectMap.Entry<Value> entry : map.int2ObjectEntrySet()) {
+            assertEquals(entry.getIntKey(), entry.getValue().key);
+            iterated++;
+        }
+        assertEquals(size, iterated);
+    }
+
+    @Test
+    void iteratorRemovalSurvivesRebuilds() {
+        ConcurrentInt2ObjectMap<Value> map = new ConcurrentInt2ObjectMap<>();
+        for (int key = -5000; key < 5000; key++) {
+            map.put(key, new Value(key, 0));
+        }
+        map.int2ObjectEntrySet().removeIf(entry -> (entry.getIntKey() & 1) == 0);
+        assertEquals(5000, map.size());
+        // grow through further rebuilds on top of the tombstones
+        for (int key = 5000; key < 20000; key++) {
+            map.put(key, new Value(key, 1));
+        }
+        for (int key = -5000; key < 20000; key++) {
+            Value value = map.get(key);
+            if (key < 5000 && (key & 1) == 0) {
+                assertNull(value);
+            } else {
+                assertEquals(key, value.key);
+            }
+        }
+    }
+
+    private static final class Value {
+
+        private final int key;
+        private final int version;
+
+        private Value(int key, int version) {
+            this.key = key;
+            this.version = version;
+        }
+
+        @Override
+        public String toString() {
+            return this.key + "@" + this.version;
+        }
+    }
+}
\ No newline at end of file